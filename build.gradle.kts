@@ -31,6 +31,20 @@ dependencies {
 	modApi(libs.modmenu)
 	modApi(libs.rei)
 	modApi(libs.night.auto.config)
+
+	// Boots Minecraft's registries in unit tests
+	testImplementation(libs.fabric.loader.junit)
+	testImplementation(platform(libs.junit.bom))
+	testImplementation(libs.junit.jupiter)
+	testRuntimeOnly(libs.junit.platform.launcher)
+}
+
+sourceSets {
+	// Synthetic registries for local stress runs, never part of the released jar
+	create("stress") {
+		compileClasspath += sourceSets.main.get().compileClasspath
+		runtimeClasspath += sourceSets.main.get().runtimeClasspath
+	}
 }
 
 java {
@@ -42,6 +56,28 @@ java {
 
 loom {
 	accessWidenerPath = file("src/main/resources/reicollapsibleentries.accesswidener")
+
+	mods {
+		register("reicollapsibleentries") {
+			sourceSet(sourceSets.main.get())
+		}
+		register("reicollapsibleentries_stress") {
+			sourceSet(sourceSets["stress"])
+		}
+	}
+
+	runs {
+		named("client") {
+			source(sourceSets["stress"])
+
+			// ./gradlew runClient -PstressMods=300 -PstressItems=400
+			listOf("mods", "items", "fluids", "tags").forEach { key ->
+				findProperty("stress${key.replaceFirstChar(Char::uppercase)}")?.let {
+					vmArg("-Dreicollapsibleentries.stress.$key=$it")
+				}
+			}
+		}
+	}
 }
 
 tasks {
@@ -57,6 +93,10 @@ tasks {
 	jar {
 		from("LICENSE")
 	}
+
+	test {
+		useJUnitPlatform()
+	}
 }
 
 publishing {
@@ -1,32 +1,212 @@
 package band.kessokuteatime.reicollapsibleentries;
 
+import band.kessokuteatime.reicollapsibleentries.client.listener.EntryRegistryChangeListener;
+import band.kessokuteatime.reicollapsibleentries.config.ConfigSnapshot;
+import band.kessokuteatime.reicollapsibleentries.config.REICollapsibleEntriesConfig;
+import band.kessokuteatime.reicollapsibleentries.core.EntryIndex;
+import band.kessokuteatime.reicollapsibleentries.core.GroupManifest;
+import band.kessokuteatime.reicollapsibleentries.core.ModGroup;
+import band.kessokuteatime.reicollapsibleentries.core.ModGroupContributor;
+import band.kessokuteatime.reicollapsibleentries.core.ModGroupRegistry;
+import band.kessokuteatime.reicollapsibleentries.core.PathTokenGrouper;
+import band.kessokuteatime.reicollapsibleentries.core.PredicateOptimizer;
+import band.kessokuteatime.reicollapsibleentries.core.RecordingCollapsibleEntryRegistry;
+import band.kessokuteatime.reicollapsibleentries.core.TagGrouper;
+import band.kessokuteatime.reicollapsibleentries.core.TagTrie;
+import band.kessokuteatime.reicollapsibleentries.core.UsageCounts;
+import band.kessokuteatime.reicollapsibleentries.core.VariantClassifier;
+import band.kessokuteatime.reicollapsibleentries.jfr.ConfigLoadEvent;
+import band.kessokuteatime.reicollapsibleentries.jfr.CustomTagsEvent;
+import band.kessokuteatime.reicollapsibleentries.jfr.RegistrationEvent;
 import me.shedaniel.rei.api.client.registry.entry.CollapsibleEntryRegistry;
+import me.shedaniel.rei.api.client.registry.entry.EntryRegistry;
+import me.shedaniel.rei.api.common.entry.EntryStack;
 import me.shedaniel.rei.api.common.entry.type.EntryType;
 import me.shedaniel.rei.api.common.entry.type.VanillaEntryTypes;
 import me.shedaniel.rei.api.common.util.EntryIngredients;
 import band.kessokuteatime.reicollapsibleentries.core.ModPredicate;
+import net.fabricmc.loader.api.FabricLoader;
+import net.fabricmc.loader.api.entrypoint.EntrypointContainer;
 import net.minecraft.block.Blocks;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.toast.SystemToast;
 import net.minecraft.item.Item;
 import net.minecraft.item.Items;
 import net.minecraft.registry.Registries;
 import net.minecraft.registry.tag.TagKey;
+import net.minecraft.text.Text;
 import net.minecraft.util.Identifier;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static band.kessokuteatime.reicollapsibleentries.core.ModEntry.*;
 
 @SuppressWarnings("UnstableApiUsage")
 public class REIClientPlugin implements me.shedaniel.rei.api.client.plugins.REIClientPlugin {
     @Override
-    public void registerCollapsibleEntries(CollapsibleEntryRegistry registry) {
+    public void registerCollapsibleEntries(CollapsibleEntryRegistry collapsibleEntryRegistry) {
         REICollapsibleEntries.LOGGER.info("Registering quality-of-life collapsible entries for REI!");
+        ConfigLoadEvent configLoadEvent = new ConfigLoadEvent();
+        configLoadEvent.begin();
         REICollapsibleEntries.CONFIG.load();
+        ConfigSnapshot config = REICollapsibleEntries.config();
+        configLoadEvent.customTags = config.customTags().size();
+        configLoadEvent.commit();
+
+        EntryIndex index = EntryIndex.of(EntryRegistry.getInstance().getEntryStacks().toList());
+        RecordingCollapsibleEntryRegistry recorder = config.recordSnapshots()
+                ? new RecordingCollapsibleEntryRegistry(collapsibleEntryRegistry)
+                : null;
+
+        // Sample the entry list once, so that every group's predicate can be reordered by cost
+        ModGroupRegistry registry = new ModGroupRegistry(
+                recorder != null ? recorder : collapsibleEntryRegistry,
+                PredicateOptimizer.sample(index.entries())
+        );
+        registry.budget(
+                Duration.ofMillis(Math.max(0, config.groupBudget())),
+                config.deferQuarantined()
+        );
+
+        // A shipped manifest matching this instance replaces all rules and proposals
+        Optional<List<ModGroup>> manifest = readManifest(index, config);
+        if (manifest.isPresent()) {
+            manifest.get().forEach(registry::add);
+            REICollapsibleEntries.LOGGER.info("Loaded {} collapsible entries from manifest {}", manifest.get().size(), GroupManifest.PATH);
+        } else {
+            registerRules(registry, config);
+            registerContributions(registry);
+            registry.eliminate(index);
+        }
+
+        // Proposals and splits work on resolved groups before submitting, so those cannot wait:
+        // proposals and large splits need every group, variant splits the classified ones
+        boolean proposing = manifest.isEmpty() && (config.autoGroups() || config.largeGroupSize() > 0);
+        boolean splittingVariants = manifest.isEmpty() && config.variantSubgroups();
+        if (config.eagerGroups() > 0) {
+            if (proposing) REICollapsibleEntries.LOGGER.info("Gathering all collapsible entries while reloading, as auto groups or large entry splitting need all of them");
+            registry.prioritize(UsageCounts.get(), config.eagerGroups(),
+                    group -> !proposing && (!splittingVariants || group.classifier() == null));
+        }
+
+        // Disabled groups are neither optimized nor resolved until they get enabled, unless they
+        // are split, which only happens while reloading, so that enabling them gives the same groups
+        boolean splitting = splittingVariants || (manifest.isEmpty() && config.largeGroupSize() > 0);
+        if (!splitting) registry.toggle(config.disabledMods(), config.disabledFamilies());
+        registry.resolve(index);
+
+        if (manifest.isEmpty() && config.autoTags()) {
+            TagGrouper.propose(registry, config.autoTagMinSize(), config.autoTagSimilarity())
+                    .forEach(registry::add);
+            registry.resolve(index);
+        }
+
+        if (manifest.isEmpty() && config.autoGroups()) {
+            PathTokenGrouper.propose(index, registry.covered(), config.autoGroupMinSize())
+                    .forEach(registry::add);
+        }
+
+        if (manifest.isEmpty() && config.variantSubgroups()) {
+            registry.splitVariants();
+        }
 
+        if (manifest.isEmpty() && config.largeGroupSize() > 0) {
+            registry.splitLarge(config.largeGroupSize(), config.largeGroupSplit() == REICollapsibleEntriesConfig.SplitMode.NAMESPACE);
+        }
+
+        registry.toggle(config.disabledMods(), config.disabledFamilies());
+        reportQuarantined(registry.quarantined(), config.deferQuarantined());
+
+        // Groups still resolving in the background would be recorded with only part of their members
+        if (recorder != null) registry.submit(() -> recordSnapshot(recorder, registry, index));
+        else registry.submit();
+        EntryRegistryChangeListener.INSTANCE.register();
+        REICollapsibleEntries.appliedValues = config.reloadingValues();
+        REICollapsibleEntries.appliedGroupingValues = config.groupingValues();
+    }
+
+    private static void recordSnapshot(RecordingCollapsibleEntryRegistry recorder, ModGroupRegistry registry, EntryIndex index) {
+        // Skipped groups are resolved as well, so that two runs record the same members regardless of timing
+        registry.resolveAll();
+
+        List<EntryStack<?>> entries = new ArrayList<>(index.count());
+        for (int i = 0; i < index.size(); i++) {
+            if (!index.removed(i)) entries.add(index.get(i));
+        }
+
+        try {
+            REICollapsibleEntries.LOGGER.info("Recorded collapsible entries snapshot to {}", recorder.writeSnapshot(entries));
+        } catch (IOException e) {
+            REICollapsibleEntries.LOGGER.error("Failed to record collapsible entries snapshot!", e);
+        }
+    }
+
+    private static void reportQuarantined(List<ModGroup> quarantined, boolean deferred) {
+        if (quarantined.isEmpty()) return;
+
+        Text description = Text.translatable(
+                deferred
+                        ? "toast.reicollapsibleentries.quarantined.deferred"
+                        : "toast.reicollapsibleentries.quarantined.skipped",
+                quarantined.get(0).identifier().toString()
+        );
+        MinecraftClient.getInstance().execute(() -> SystemToast.show(
+                MinecraftClient.getInstance().getToastManager(),
+                SystemToast.Type.PERIODIC_NOTIFICATION,
+                Text.translatable("toast.reicollapsibleentries.quarantined", quarantined.size()),
+                description
+        ));
+    }
+
+    private static Optional<List<ModGroup>> readManifest(EntryIndex index, ConfigSnapshot config) {
+        if (!Files.isRegularFile(GroupManifest.PATH)) return Optional.empty();
+
+        try {
+            String fingerprint = GroupManifest.fingerprint(index, config.groupingValues());
+            Optional<List<ModGroup>> groups = GroupManifest.read(GroupManifest.PATH, fingerprint, index, GroupManifest.registries());
+            if (groups.isEmpty()) REICollapsibleEntries.LOGGER.info("Ignoring collapsible entries manifest, it doesn't match this instance");
+            return groups;
+        } catch (IOException e) {
+            REICollapsibleEntries.LOGGER.error("Failed to read collapsible entries manifest!", e);
+            return Optional.empty();
+        }
+    }
+
+    private static void registerContributions(ModGroupRegistry registry) {
+        for (EntrypointContainer<ModGroupContributor> contributor : FabricLoader.getInstance()
+                .getEntrypointContainers(ModGroupContributor.ENTRYPOINT, ModGroupContributor.class)) {
+            String modid = contributor.getProvider().getMetadata().getId();
+            RegistrationEvent event = RegistrationEvent.begin(modid, registry);
+            int before = registry.size();
+
+            // A broken contributor must not take the built-in rules down with it
+            try {
+                registry.contribute(contributor.getEntrypoint());
+                REICollapsibleEntries.LOGGER.info("Registered {} collapsible entries contributed by {}", registry.size() - before, modid);
+            } catch (RuntimeException | LinkageError e) {
+                // None of its groups are kept, so the rest of the reload sees a consistent registry
+                REICollapsibleEntries.LOGGER.error("Failed to register collapsible entries contributed by {}, discarding them!", modid, e);
+            }
+
+            event.commit(registry);
+        }
+    }
+
+    private static void registerRules(ModGroupRegistry registry, ConfigSnapshot config) {
         types:
         {
+            RegistrationEvent event = RegistrationEvent.begin("types", registry);
+
             // Fluids
             MC.buildCollection("fluids")
                     .predicate(ModPredicate.type(VanillaEntryTypes.FLUID))
@@ -36,27 +216,45 @@ public class REIClientPlugin implements me.shedaniel.rei.api.client.plugins.REIC
             MC.buildCollection("spawn_eggs")
                     .predicate(ModPredicate.pathTrailing("spawn_egg"))
                     .register(registry);
+
+            event.commit(registry);
         }
 
         tags:
         {
+            RegistrationEvent event = RegistrationEvent.begin("tags", registry);
+
             // Custom tags
-            REICollapsibleEntries.CONFIG.get().customTags.forEach(tag ->
-                    Optional.ofNullable(Identifier.tryParse(tag)).ifPresent(identifier -> {
-                        TagKey<Item> tagKey = TagKey.of(Registries.ITEM.getKey(), identifier);
-                        List<Item> items = Registries.ITEM.stream()
-                                .filter(item -> item.getDefaultStack().isIn(tagKey))
-                                .toList();
-
-                        if (!items.isEmpty()) {
-                            registry.group(
-                                    identifier,
-                                    REICollapsibleEntries.paintIdentifier(identifier),
-                                    EntryIngredients.ofItemTag(tagKey)
-                            );
-                        }
-                    })
-            );
+            CustomTagsEvent customTagsEvent = new CustomTagsEvent();
+            customTagsEvent.begin();
+            int groupsBefore = registry.size();
+
+            // Wildcards like "c:ingots/*" expand to every known tag below them
+            TagTrie trie = TagTrie.of(Registries.ITEM.streamTags().map(TagKey::id).toList());
+            Set<Identifier> customTags = new LinkedHashSet<>();
+            config.customTags().forEach(tag -> customTags.addAll(trie.expand(tag)));
+
+            customTags.forEach(identifier -> {
+                TagKey<Item> tagKey = TagKey.of(Registries.ITEM.getKey(), identifier);
+                boolean empty = Registries.ITEM.getEntryList(tagKey)
+                        .map(entries -> entries.size() == 0)
+                        .orElse(true);
+
+                if (!empty) {
+                    registry.group(
+                            identifier,
+                            REICollapsibleEntries.paintIdentifier(identifier),
+                            EntryIngredients.ofItemTag(tagKey)
+                    );
+                }
+            });
+
+            customTagsEvent.end();
+            if (customTagsEvent.shouldCommit()) {
+                customTagsEvent.tags = customTags.size();
+                customTagsEvent.groups = registry.size() - groupsBefore;
+                customTagsEvent.commit();
+            }
 
             // Ores
             Arrays.stream(new String[]{
@@ -79,12 +277,16 @@ public class REIClientPlugin implements me.shedaniel.rei.api.client.plugins.REIC
                                     .and(ModPredicate.mod(TIC))
                                     .and(ModPredicate.pathTrailing("glass_pane")))) // Special case for glass panes in TC
                     .register(registry);
+
+            event.commit(registry);
         }
 
         // --- Minecraft
 
         minecraft:
         {
+            RegistrationEvent event = RegistrationEvent.begin(MC.modid(), registry);
+
             // TODO: 2023/12/30
             // Tags
             Arrays.stream(new String[]{
@@ -102,12 +304,18 @@ public class REIClientPlugin implements me.shedaniel.rei.api.client.plugins.REIC
                 final String[] MATERIALS = new String[]{"wooden", "stone", "golden", "iron", "diamond", "netherite"};
                 final String[] TOOLS = new String[]{"sword", "shovel", "pickaxe", "axe", "hoe"};
 
+                // Each tool is only looked up among the items ending with its type
+                Map<String, List<ModGroup>> byMaterial = new LinkedHashMap<>();
+                Arrays.stream(TOOLS).forEach(tool -> {
+                    ModGroup toolLeaf = ModGroup.leaf(MC.id("tool_types", tool), ModPredicate.pathTrailing(tool));
+                    Arrays.stream(MATERIALS).forEach(material -> byMaterial
+                            .computeIfAbsent(material, key -> new ArrayList<>())
+                            .add(toolLeaf.refine(MC.id("tools", material, tool), ModPredicate.path(joinAll(material, tool)))));
+                });
+
                 Arrays.stream(MATERIALS).forEach(material ->
                         MC.buildCollection("tools", material)
-                                .predicate(ModPredicate.iterate(
-                                        p -> ModPredicate.path(joinAll(material, p)),
-                                        TOOLS
-                                ))
+                                .union(byMaterial.get(material))
                                 .register(registry)
                 );
             }
@@ -117,18 +325,26 @@ public class REIClientPlugin implements me.shedaniel.rei.api.client.plugins.REIC
                 final String[] MATERIALS = new String[]{"leather", "chainmail", "iron", "diamond", "golden", "netherite"};
                 final String[] ARMORS = new String[]{"helmet", "chestplate", "suit", "leggings", "pants", "boots"};
 
+                // Types are the leaves, materials are views over their refinements
+                Map<String, ModGroup> byType = new LinkedHashMap<>();
+                Map<String, List<ModGroup>> byMaterial = new LinkedHashMap<>();
+                Arrays.stream(ARMORS).forEach(type -> {
+                    ModGroup typeLeaf = ModGroup.leaf(MC.id("armor_types", type, "leaf"), ModPredicate.pathTrailing(type));
+                    byType.put(type, typeLeaf);
+                    Arrays.stream(MATERIALS).forEach(material -> byMaterial
+                            .computeIfAbsent(material, key -> new ArrayList<>())
+                            .add(typeLeaf.refine(MC.id("armors", material, type), ModPredicate.path(joinAll(material, type)))));
+                });
+
                 Arrays.stream(MATERIALS).forEach(material ->
                         MC.buildCollection("armors", material)
-                                .predicate(ModPredicate.iterate(
-                                        p -> ModPredicate.path(joinAll(material, p)),
-                                        ARMORS
-                                ))
+                                .union(byMaterial.get(material))
                                 .register(registry)
                 );
 
                 Arrays.stream(ARMORS).forEach(type ->
                         MC.buildCollection("armor_types", type)
-                                .predicate(ModPredicate.pathTrailing(type))
+                                .union(byType.get(type))
                                 .register(registry)
                 );
             }
@@ -136,11 +352,13 @@ public class REIClientPlugin implements me.shedaniel.rei.api.client.plugins.REIC
             // Enchanted books
             MC.buildCollection("enchanted_books")
                     .predicate(ModPredicate.id(Registries.ITEM.getId(Items.ENCHANTED_BOOK)))
+                    .subgroups(VariantClassifier.enchantment())
                     .register(registry);
 
             // Tipped arrows
             MC.buildCollection("tipped_arrows")
                     .predicate(ModPredicate.id(Registries.ITEM.getId(Items.TIPPED_ARROW)))
+                    .subgroups(VariantClassifier.potion())
                     .register(registry);
 
             // Paintings
@@ -177,35 +395,44 @@ public class REIClientPlugin implements me.shedaniel.rei.api.client.plugins.REIC
             Arrays.stream(new String[]{null, "lingering", "splash"}).forEach(prefix ->
                     MC.buildCollection(joinAll(prefix, "potions"))
                             .predicate(ModPredicate.idTrailing(MC.id(joinAll(prefix, "potion"))))
+                            .subgroups(VariantClassifier.potion())
                             .register(registry)
             );
 
-            // Colored blocks
-            Arrays.stream(new String[]{
-                    "terracotta", "glazed_terracotta", "concrete",
-                    "concrete_powder", "wool", "carpet"
-            }).forEach(type -> MC.buildCollection("blocks", type)
-                    .predicate(ModPredicate.dyeVariants(dyeColor ->
-                            ModPredicate.id(MC.id(joinAll(dyeColor.getName(), type)))
-                    ))
-                    .register(registry)
-            );
+            // Colored blocks, each type only looked up among the entries starting with a dye color
+            {
+                ModGroup dyed = ModGroup.leaf(MC.id("blocks", "dyed"), ModPredicate.mod(MC)
+                        .and(ModPredicate.dyeVariants(dyeColor -> ModPredicate.pathLeading(dyeColor.getName()))));
+
+                Arrays.stream(new String[]{
+                        "terracotta", "glazed_terracotta", "concrete",
+                        "concrete_powder", "wool", "carpet"
+                }).forEach(type -> MC.buildCollection("blocks", type)
+                        .union(dyed.refine(MC.id("blocks", type, "leaf"), ModPredicate.dyeVariants(dyeColor ->
+                                ModPredicate.id(MC.id(joinAll(dyeColor.getName(), type)))
+                        )))
+                        .register(registry)
+                );
+            }
 
-            // Corals
+            // Corals, each form only looked up among the coral entries
             {
                 final String[] TYPES = new String[]{"tube", "brain", "bubble", "fire", "horn"};
                 final String[] PREFIXES = new String[]{null, "dead"};
                 final String[] POSTFIXES = new String[]{"coral", "coral_fan", "coral_block"};
 
+                ModGroup corals = ModGroup.leaf(MC.id("blocks", "corals"), ModPredicate.mod(MC)
+                        .and(ModPredicate.pathContains("coral")));
+
                 Arrays.stream(POSTFIXES).forEach(postfix ->
                         MC.buildCollection("blocks", postfix)
-                                .predicate(ModPredicate.iterate(
+                                .union(corals.refine(MC.id("blocks", postfix, "leaf"), ModPredicate.iterate(
                                         p -> ModPredicate.iterate(
                                                 pp -> ModPredicate.id(MC.id(joinAll(pp, p, postfix))),
                                                 PREFIXES
                                         ),
                                         TYPES
-                                ))
+                                )))
                                 .register(registry)
                 );
             }
@@ -230,12 +457,16 @@ public class REIClientPlugin implements me.shedaniel.rei.api.client.plugins.REIC
                     .predicate(ModPredicate.pathTrailing(type))
                     .register(registry)
             );
+
+            event.commit(registry);
         }
 
         // --- Ad Astra
 
         adAstra:
         {
+            RegistrationEvent event = RegistrationEvent.begin(AD_ASTRA.modid(), registry);
+
             // Flags
             AD_ASTRA.buildCollection("flags")
                     .predicate(ModPredicate.idTrailing(AD_ASTRA.id("flag")))
@@ -264,12 +495,16 @@ public class REIClientPlugin implements me.shedaniel.rei.api.client.plugins.REIC
                             .predicate(ModPredicate.idContains(AD_ASTRA.id(planet)))
                             .register(registry)
             );
+
+            event.commit(registry);
         }
 
         // --- Applied Energetics 2
 
         ae2:
         {
+            RegistrationEvent event = RegistrationEvent.begin(AE2.modid(), registry);
+
             // Paint balls
             final String postfix = "paint_ball";
 
@@ -280,24 +515,32 @@ public class REIClientPlugin implements me.shedaniel.rei.api.client.plugins.REIC
                             ))
                             .register(registry)
             );
+
+            event.commit(registry);
         }
 
         // --- Catwalks LLC.
 
         catwalksLLC:
         {
+            RegistrationEvent event = RegistrationEvent.begin(CATWALKS.modid(), registry);
+
             // Paint rollers
             CATWALKS.buildTagged("filled_paint_rollers")
                     .predicate(ModPredicate.mod(CATWALKS)
                             .and(ModPredicate.tag(CATWALKS.itemTag("filled_paint_rollers"))
                                     .or(ModPredicate.pathTrailing("filled_paint_rollers"))))
                     .register(registry);
+
+            event.commit(registry);
         }
 
         // --- Computer Craft
 
         computerCraft:
         {
+            RegistrationEvent event = RegistrationEvent.begin(CC.modid(), registry);
+
             // Disks
             CC.buildCollection("disks")
                     .predicate(ModPredicate.id(CC.id("disk")))
@@ -312,21 +555,25 @@ public class REIClientPlugin implements me.shedaniel.rei.api.client.plugins.REIC
                             ))
                             .register(registry)
             );
+
+            event.commit(registry);
         }
 
         // --- Create
 
         create:
         {
-            // Stone types
+            RegistrationEvent event = RegistrationEvent.begin(CREATE.modid(), registry);
+
+            // Stone types, each only looked up among Create's entries
+            ModGroup stones = ModGroup.leaf(CREATE.id("stone_types"), ModPredicate.mod(CREATE));
             Arrays.stream(new String[]{
                     "veridium", "scorchia", "scoria", "ochrum", "limestone",
                     "crimsite", "asurine", "tuff", "deepslate", "dripstone",
                     "calcite", "andesite", "diorite", "granite"
             }).forEach(type -> CREATE.buildTagged("stone_types", type)
-                    .predicate(ModPredicate.mod(CREATE)
-                            .and(ModPredicate.tag(CREATE.itemTag("stone_types", type))
-                                    .or(ModPredicate.pathContains(type))))
+                    .union(stones.refine(CREATE.id("stone_types", type, "leaf"), ModPredicate.tag(CREATE.itemTag("stone_types", type))
+                            .or(ModPredicate.pathContains(type))))
                     .register(registry)
             );
 
@@ -341,20 +588,28 @@ public class REIClientPlugin implements me.shedaniel.rei.api.client.plugins.REIC
             Arrays.stream(new String[]{"toolboxes", "seats"}).forEach(tag ->
                     CREATE.registerCollapsibleEntryFromTag(registry, tag)
             );
+
+            event.commit(registry);
         }
 
         // --- Farmer's Delight
 
         farmersDelight:
         {
+            RegistrationEvent event = RegistrationEvent.begin(FARMERS_DELIGHT.modid(), registry);
+
             // Canvas signs
             FARMERS_DELIGHT.registerCollapsibleEntryFromTag(registry, "canvas_signs");
+
+            event.commit(registry);
         }
 
         // --- Hephaestus
 
         hephaestus:
         {
+            RegistrationEvent event = RegistrationEvent.begin(TIC.modid(), registry);
+
             // Modifiers
             TIC.buildCollection("modifiers")
                     .predicate(ModPredicate.mod(TIC)
@@ -448,28 +703,44 @@ public class REIClientPlugin implements me.shedaniel.rei.api.client.plugins.REIC
             Arrays.stream(new String[]{"slime_dirt", "congealed_slime", "slime"}).forEach(suffix ->
                     TIC.buildCollection("blocks", suffix)
                             .predicate(ModPredicate.idTrailing(TIC.id(suffix)))
+                            .register(registry)
             );
+
+            event.commit(registry);
         }
 
         // --- Industrial Revolution
 
-        // Modules
-        INDREV.buildCollection("modules")
-                .predicate(ModPredicate.idLeading(INDREV.id("module")))
-                .register(registry);
+        indrev:
+        {
+            RegistrationEvent event = RegistrationEvent.begin(INDREV.modid(), registry);
+
+            // Modules
+            INDREV.buildCollection("modules")
+                    .predicate(ModPredicate.idLeading(INDREV.id("module")))
+                    .register(registry);
+
+            event.commit(registry);
+        }
 
         // --- Item Filters
 
         itemFilters:
         {
+            RegistrationEvent event = RegistrationEvent.begin(ITEM_FILTERS.modid(), registry);
+
             // Filters
             ITEM_FILTERS.registerCollapsibleEntryFromTag(registry, "filters");
+
+            event.commit(registry);
         }
 
         // --- Kibe
 
         kibe:
         {
+            RegistrationEvent event = RegistrationEvent.begin(KIBE.modid(), registry);
+
             // Colored blocks
             Arrays.stream(new String[]{"sleeping_bag", "glider", "rune", "elevator"}).forEach(thing ->
                     KIBE.buildCollection("things", thing)
@@ -511,15 +782,20 @@ public class REIClientPlugin implements me.shedaniel.rei.api.client.plugins.REIC
                             .predicate(ModPredicate.idLeading(KIBE.id(joinAll(type, "generator"))))
                             .register(registry)
             );
+
+            event.commit(registry);
         }
 
         // --- Promenade
 
         promenade:
         {
+            RegistrationEvent event = RegistrationEvent.begin(PROMENADE.modid(), registry);
+
             // Piles
             PROMENADE.buildCollection("piles")
-                    .predicate(ModPredicate.idTrailing(PROMENADE.id("pile")));
+                    .predicate(ModPredicate.idTrailing(PROMENADE.id("pile")))
+                    .register(registry);
 
             // Mushrooms & mushroom blocks
             Arrays.stream(new String[]{null, "block"}).forEach(type ->
@@ -527,6 +803,8 @@ public class REIClientPlugin implements me.shedaniel.rei.api.client.plugins.REIC
                             .predicate(ModPredicate.idContains(PROMENADE.id(joinAll("mushroom", type))))
                             .register(registry)
             );
+
+            event.commit(registry);
         }
     }
 }
@@ -1,14 +1,18 @@
 package band.kessokuteatime.reicollapsibleentries;
 
 import band.kessokuteatime.nightautoconfig.config.base.ConfigType;
+import band.kessokuteatime.reicollapsibleentries.core.ModGroupRegistry;
 import me.shedaniel.autoconfig.AutoConfig;
 import me.shedaniel.autoconfig.ConfigHolder;
 import me.shedaniel.autoconfig.serializer.Toml4jConfigSerializer;
 import me.shedaniel.rei.RoughlyEnoughItemsCore;
 import me.shedaniel.rei.RoughlyEnoughItemsCoreClient;
+import me.shedaniel.rei.api.client.REIRuntime;
+import me.shedaniel.rei.api.client.overlay.ScreenOverlay;
 import net.fabricmc.api.ClientModInitializer;
 import net.fabricmc.fabric.api.client.command.v2.ClientCommandRegistrationCallback;
 import band.kessokuteatime.reicollapsibleentries.client.listener.ClientCommandRegistryListener;
+import band.kessokuteatime.reicollapsibleentries.config.ConfigSnapshot;
 import band.kessokuteatime.reicollapsibleentries.config.REICollapsibleEntriesConfig;
 import net.minecraft.text.MutableText;
 import net.minecraft.text.Text;
@@ -19,14 +23,35 @@ import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
 public class REICollapsibleEntries implements ClientModInitializer {
 	public static final String NAME = "REI Collapsible Entries", ID = "reicollapsibleentries";
 	public static final Logger LOGGER = LoggerFactory.getLogger(ID);
 	public static final ConfigHolder<REICollapsibleEntriesConfig> CONFIG;
+	private static final AtomicReference<ConfigSnapshot> SNAPSHOT = new AtomicReference<>();
+
+	/**
+	 * The {@link REICollapsibleEntriesConfig#reloadingValues()} the current collapsible entries were built with.
+	 * Written on REI's reload thread, read on the render thread.
+	 */
+	static volatile Map<String, Object> appliedValues = Map.of();
+
+	/**
+	 * The {@link REICollapsibleEntriesConfig#groupingValues()} the current collapsible entries were built with.
+	 */
+	static volatile Map<String, Object> appliedGroupingValues = Map.of();
 
 	static {
 		AutoConfig.register(REICollapsibleEntriesConfig.class, ConfigType.DEFAULT_COMMENTED::fileWatcherSerializer);
 		CONFIG = AutoConfig.getConfigHolder(REICollapsibleEntriesConfig.class);
+		SNAPSHOT.set(ConfigSnapshot.of(CONFIG.get()));
+
+		CONFIG.registerLoadListener((configHolder, config) -> {
+			SNAPSHOT.set(ConfigSnapshot.of(config));
+			return ActionResult.PASS;
+		});
 	}
 
 	@Override
@@ -34,11 +59,37 @@ public class REICollapsibleEntries implements ClientModInitializer {
 		ClientCommandRegistrationCallback.EVENT.register(new ClientCommandRegistryListener());
 
 		CONFIG.registerSaveListener((configHolder, config) -> {
-			RoughlyEnoughItemsCoreClient.reloadPlugins(null, null);
+			ConfigSnapshot snapshot = ConfigSnapshot.of(config);
+			SNAPSHOT.set(snapshot);
+
+			if (ModGroupRegistry.current().isPresent() && snapshot.reloadingValues().equals(appliedValues)) {
+				// Only toggles changed, which the current groups can apply by themselves
+				int changed = ModGroupRegistry.current().get().toggle(snapshot.disabledMods(), snapshot.disabledFamilies());
+				if (changed > 0) REIRuntime.getInstance().getOverlay().ifPresent(ScreenOverlay::queueReloadSearch);
+			} else {
+				RoughlyEnoughItemsCoreClient.reloadPlugins(null, null);
+			}
 			return ActionResult.PASS;
 		});
 	}
 
+	/**
+	 * Gets the latest config snapshot. Unlike {@link #CONFIG}, it never changes underneath its readers.
+	 *
+	 * @return The snapshot.
+	 */
+	public static ConfigSnapshot config() {
+		return SNAPSHOT.get();
+	}
+
+	public static Map<String, Object> appliedValues() {
+		return appliedValues;
+	}
+
+	public static Map<String, Object> appliedGroupingValues() {
+		return appliedGroupingValues;
+	}
+
 	public static MutableText paintIdentifier(@NotNull Identifier identifier) {
 		return Text.translatable("tagged.#").formatted(Formatting.GRAY)
 				.append(Text.literal(identifier.getNamespace()).formatted(Formatting.AQUA))
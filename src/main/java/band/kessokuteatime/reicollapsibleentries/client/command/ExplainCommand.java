@@ -0,0 +1,54 @@
+package band.kessokuteatime.reicollapsibleentries.client.command;
+
+import band.kessokuteatime.reicollapsibleentries.REICollapsibleEntries;
+import band.kessokuteatime.reicollapsibleentries.core.ModGroup;
+import band.kessokuteatime.reicollapsibleentries.core.ModGroupRegistry;
+import com.mojang.brigadier.Command;
+import com.mojang.brigadier.context.CommandContext;
+import me.shedaniel.rei.api.common.util.EntryStacks;
+import net.fabricmc.fabric.api.client.command.v2.FabricClientCommandSource;
+import net.minecraft.item.ItemStack;
+import net.minecraft.text.ClickEvent;
+import net.minecraft.text.HoverEvent;
+import net.minecraft.text.MutableText;
+import net.minecraft.text.Text;
+import net.minecraft.util.Formatting;
+
+import java.util.List;
+import java.util.Optional;
+
+public class ExplainCommand implements Command<FabricClientCommandSource> {
+	@Override
+	public int run(CommandContext<FabricClientCommandSource> context) {
+		ItemStack stack = context.getSource().getPlayer().getMainHandStack();
+		if (stack.isEmpty()) return 0;
+
+		Optional<ModGroupRegistry> registry = ModGroupRegistry.current();
+		if (registry.isEmpty()) {
+			context.getSource().sendError(Text.translatable("command.reicollapsibleentries.explain.unavailable"));
+			return 0;
+		}
+
+		List<ModGroup> groups = registry.get().groupsOf(EntryStacks.of(stack));
+		context.getSource().sendFeedback(Text.translatable(
+				groups.isEmpty() ? "command.reicollapsibleentries.explain.none" : "command.reicollapsibleentries.explain.groups",
+				stack.toHoverableText()
+		));
+		groups.forEach(group -> context.getSource().sendFeedback(describe(group)));
+		return SINGLE_SUCCESS;
+	}
+
+	static Text describe(ModGroup group) {
+		MutableText text = REICollapsibleEntries.paintIdentifier(group.identifier())
+				.styled(style -> style
+						.withHoverEvent(new HoverEvent(HoverEvent.Action.SHOW_TEXT, group.name()))
+						.withClickEvent(new ClickEvent(
+								ClickEvent.Action.SUGGEST_COMMAND,
+								"/" + REICollapsibleEntries.ID + " explain " + group.identifier()
+						)));
+
+		if (!group.enabled())
+			text.append(Text.translatable("command.reicollapsibleentries.explain.disabled").formatted(Formatting.GRAY));
+		return text;
+	}
+}
@@ -0,0 +1,91 @@
+package band.kessokuteatime.reicollapsibleentries.client.command;
+
+import band.kessokuteatime.reicollapsibleentries.core.ModGroup;
+import band.kessokuteatime.reicollapsibleentries.core.ModGroupRegistry;
+import band.kessokuteatime.reicollapsibleentries.core.ModPredicate;
+import com.mojang.brigadier.Command;
+import com.mojang.brigadier.context.CommandContext;
+import com.mojang.brigadier.suggestion.Suggestions;
+import com.mojang.brigadier.suggestion.SuggestionsBuilder;
+import me.shedaniel.rei.api.common.entry.EntryStack;
+import me.shedaniel.rei.api.common.util.EntryStacks;
+import net.fabricmc.fabric.api.client.command.v2.FabricClientCommandSource;
+import net.minecraft.command.CommandSource;
+import net.minecraft.item.ItemStack;
+import net.minecraft.text.Text;
+import net.minecraft.util.Formatting;
+import net.minecraft.util.Identifier;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+public class ExplainGroupCommand implements Command<FabricClientCommandSource> {
+	public static final String GROUP = "group";
+
+	@Override
+	public int run(CommandContext<FabricClientCommandSource> context) {
+		ItemStack stack = context.getSource().getPlayer().getMainHandStack();
+		if (stack.isEmpty()) return 0;
+
+		Optional<ModGroupRegistry> registry = ModGroupRegistry.current();
+		if (registry.isEmpty()) {
+			context.getSource().sendError(Text.translatable("command.reicollapsibleentries.explain.unavailable"));
+			return 0;
+		}
+
+		Identifier identifier = context.getArgument(GROUP, Identifier.class);
+		Optional<ModGroup> group = registry.get().group(identifier);
+		if (group.isEmpty()) {
+			context.getSource().sendError(Text.translatable("command.reicollapsibleentries.explain.unknown", identifier.toString()));
+			return 0;
+		}
+
+		EntryStack<?> entryStack = EntryStacks.of(stack);
+		context.getSource().sendFeedback(Text.translatable(
+				registry.get().groupsOf(entryStack).contains(group.get()) ? "command.reicollapsibleentries.explain.member" : "command.reicollapsibleentries.explain.not_member",
+				stack.toHoverableText(),
+				ExplainCommand.describe(group.get())
+		));
+
+		// Only the named group is evaluated, against the held item alone
+		List<Text> lines = new ArrayList<>();
+		explain(group.get(), entryStack, 0, lines);
+		lines.forEach(line -> context.getSource().sendFeedback(line));
+		return SINGLE_SUCCESS;
+	}
+
+	public static CompletableFuture<Suggestions> suggest(CommandContext<FabricClientCommandSource> context, SuggestionsBuilder builder) {
+		return CommandSource.suggestIdentifiers(
+				ModGroupRegistry.current().map(registry -> registry.groups().stream().map(ModGroup::identifier).toList()).orElse(List.of()),
+				builder
+		);
+	}
+
+	private static void explain(ModGroup group, EntryStack<?> entryStack, int depth, List<Text> lines) {
+		ModGroup parent = group.parent();
+		if (parent != null) {
+			lines.add(line(depth, parent.test(entryStack), Text.translatable("command.reicollapsibleentries.explain.within", parent.identifier().toString())));
+			if (parent.predicate() != null) explain(parent.predicate(), entryStack, depth + 1, lines);
+		}
+
+		for (ModGroup part : group.parts()) {
+			lines.add(line(depth, part.test(entryStack), Text.literal(part.identifier().toString())));
+			explain(part, entryStack, depth + 1, lines);
+		}
+
+		if (group.predicate() != null) explain(group.predicate(), entryStack, depth, lines);
+	}
+
+	private static void explain(ModPredicate predicate, EntryStack<?> entryStack, int depth, List<Text> lines) {
+		lines.add(line(depth, predicate.test(entryStack), Text.literal(predicate.label())));
+		predicate.operands().forEach(operand -> explain(operand, entryStack, depth + 1, lines));
+	}
+
+	private static Text line(int depth, boolean matched, Text clause) {
+		return Text.literal("  ".repeat(depth))
+				.append(Text.literal(matched ? "✔ " : "✘ ").formatted(matched ? Formatting.GREEN : Formatting.RED))
+				.append(clause.copy().formatted(Formatting.GRAY));
+	}
+}
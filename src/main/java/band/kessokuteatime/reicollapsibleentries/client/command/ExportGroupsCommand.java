@@ -0,0 +1,57 @@
+package band.kessokuteatime.reicollapsibleentries.client.command;
+
+import band.kessokuteatime.reicollapsibleentries.REICollapsibleEntries;
+import band.kessokuteatime.reicollapsibleentries.core.GroupExport;
+import band.kessokuteatime.reicollapsibleentries.core.ModGroup;
+import band.kessokuteatime.reicollapsibleentries.core.ModGroupRegistry;
+import com.mojang.brigadier.Command;
+import com.mojang.brigadier.context.CommandContext;
+import com.mojang.datafixers.util.Pair;
+import net.fabricmc.fabric.api.client.command.v2.FabricClientCommandSource;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.text.Text;
+import net.minecraft.util.Util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+public class ExportGroupsCommand implements Command<FabricClientCommandSource> {
+	@Override
+	public int run(CommandContext<FabricClientCommandSource> context) {
+		Optional<ModGroupRegistry> registry = ModGroupRegistry.current();
+
+		if (registry.isEmpty()) {
+			context.getSource().sendError(Text.translatable("command.reicollapsibleentries.export.unavailable"));
+			return 0;
+		}
+
+		// Only the list is copied here, the file is created and written on an IO worker
+		List<ModGroup> groups = registry.get().groups();
+
+		CompletableFuture.supplyAsync(() -> {
+					try {
+						Path path = GroupExport.path();
+						return Pair.of(path, GroupExport.write(path, groups));
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				}, Util.getIoWorkerExecutor())
+				.whenCompleteAsync((export, throwable) -> {
+					if (throwable != null) {
+						REICollapsibleEntries.LOGGER.error("Failed to export collapsible entries!", throwable);
+						context.getSource().sendError(Text.translatable("command.reicollapsibleentries.export.failed"));
+					} else {
+						context.getSource().sendFeedback(Text.translatable(
+								"command.reicollapsibleentries.export.exported",
+								export.getSecond(), export.getFirst().getFileName().toString()
+						));
+					}
+				}, MinecraftClient.getInstance());
+
+		return SINGLE_SUCCESS;
+	}
+}
@@ -0,0 +1,50 @@
+package band.kessokuteatime.reicollapsibleentries.client.command;
+
+import band.kessokuteatime.reicollapsibleentries.REICollapsibleEntries;
+import band.kessokuteatime.reicollapsibleentries.core.EntryIndex;
+import band.kessokuteatime.reicollapsibleentries.core.GroupManifest;
+import band.kessokuteatime.reicollapsibleentries.core.ModGroupRegistry;
+import com.mojang.brigadier.Command;
+import com.mojang.brigadier.context.CommandContext;
+import net.fabricmc.fabric.api.client.command.v2.FabricClientCommandSource;
+import net.minecraft.text.Text;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Optional;
+
+public class ExportManifestCommand implements Command<FabricClientCommandSource> {
+	@Override
+	public int run(CommandContext<FabricClientCommandSource> context) {
+		Optional<ModGroupRegistry> registry = ModGroupRegistry.current();
+		if (registry.isEmpty() || registry.get().index().isEmpty()) {
+			context.getSource().sendError(Text.translatable("command.reicollapsibleentries.manifest.unavailable"));
+			return 0;
+		}
+
+		// Groups still resolving in the background share leaves with the ones resolved here
+		registry.get().whenResolved(() -> export(context.getSource(), registry.get()));
+		return SINGLE_SUCCESS;
+	}
+
+	private static void export(FabricClientCommandSource source, ModGroupRegistry registry) {
+		// Disabled and quarantined groups are part of the manifest too, as players may enable them
+		registry.resolveAll();
+
+		try {
+			EntryIndex index = registry.index().orElseThrow();
+			String fingerprint = GroupManifest.fingerprint(index, REICollapsibleEntries.appliedGroupingValues());
+			Path path = GroupManifest.exportPath();
+			int written = GroupManifest.write(path, fingerprint, registry, index, GroupManifest.registries());
+
+			// The manifest in use is left alone, players copy the export over it to apply it
+			source.sendFeedback(Text.translatable(
+					"command.reicollapsibleentries.manifest.exported",
+					written, path.getFileName().toString(), GroupManifest.PATH.getFileName().toString()
+			));
+		} catch (IOException e) {
+			REICollapsibleEntries.LOGGER.error("Failed to export collapsible entries manifest!", e);
+			source.sendError(Text.translatable("command.reicollapsibleentries.manifest.failed"));
+		}
+	}
+}
@@ -7,37 +7,36 @@ import net.minecraft.client.gui.screen.ConfirmScreen;
 import net.minecraft.text.Text;
 import net.minecraft.util.Identifier;
 import org.jetbrains.annotations.NotNull;
-import org.jetbrains.annotations.Nullable;
 
-public class ConfirmTagScreen extends ConfirmScreen {
-    private static @Nullable Identifier tag = null;
+import java.util.ArrayList;
 
+public class ConfirmTagScreen extends ConfirmScreen {
     public ConfirmTagScreen(@NotNull Identifier tag) {
         super(
-                ConfirmTagScreen::confirmTag,
+                notCopy -> confirmTag(tag, notCopy),
                 Text.translatable("command.reicollapsibleentries.tags.title"),
                 REICollapsibleEntries.paintIdentifier(tag),
                 ConfirmTagScreen.exists(tag) ? Text.translatable("command.reicollapsibleentries.tags.remove") : Text.translatable("command.reicollapsibleentries.tags.add"),
                 ConfirmLinkScreen.COPY
         );
-        ConfirmTagScreen.tag = tag;
     }
 
     public static boolean exists(Identifier tag) {
-        return REICollapsibleEntries.CONFIG.get().customTags.contains(tag.toString());
+        return REICollapsibleEntries.config().customTags().contains(tag.toString());
     }
 
-    public static void confirmTag(boolean notCopy) {
-        if (ConfirmTagScreen.tag == null) return;
-
-        String string = ConfirmTagScreen.tag.toString();
+    public static void confirmTag(Identifier tag, boolean notCopy) {
+        String string = tag.toString();
         if (notCopy) {
-            if (exists(ConfirmTagScreen.tag)) {
-                REICollapsibleEntries.CONFIG.get().customTags.remove(string);
+            // Copy on write, so that the list is never changed while being read
+            ArrayList<String> customTags = new ArrayList<>(REICollapsibleEntries.config().customTags());
+            if (exists(tag)) {
+                customTags.remove(string);
             } else {
-                REICollapsibleEntries.CONFIG.get().customTags.add(string);
+                customTags.add(string);
             }
 
+            REICollapsibleEntries.CONFIG.get().customTags = customTags;
             REICollapsibleEntries.CONFIG.save();
         } else {
             MinecraftClient.getInstance().keyboard.setClipboard(string);
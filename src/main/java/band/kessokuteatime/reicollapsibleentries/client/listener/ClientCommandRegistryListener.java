@@ -4,15 +4,27 @@ import com.mojang.brigadier.CommandDispatcher;
 import net.fabricmc.fabric.api.client.command.v2.ClientCommandRegistrationCallback;
 import net.fabricmc.fabric.api.client.command.v2.FabricClientCommandSource;
 import band.kessokuteatime.reicollapsibleentries.REICollapsibleEntries;
+import band.kessokuteatime.reicollapsibleentries.client.command.ExplainCommand;
+import band.kessokuteatime.reicollapsibleentries.client.command.ExplainGroupCommand;
+import band.kessokuteatime.reicollapsibleentries.client.command.ExportGroupsCommand;
+import band.kessokuteatime.reicollapsibleentries.client.command.ExportManifestCommand;
 import band.kessokuteatime.reicollapsibleentries.client.command.HeldItemTagsCommand;
 import net.minecraft.command.CommandRegistryAccess;
+import net.minecraft.command.argument.IdentifierArgumentType;
 
+import static net.fabricmc.fabric.api.client.command.v2.ClientCommandManager.argument;
 import static net.fabricmc.fabric.api.client.command.v2.ClientCommandManager.literal;
 
 public class ClientCommandRegistryListener implements ClientCommandRegistrationCallback {
     @Override
     public void register(CommandDispatcher<FabricClientCommandSource> dispatcher, CommandRegistryAccess registryAccess) {
         dispatcher.register(literal(REICollapsibleEntries.ID)
-                .then(literal("tags").executes(new HeldItemTagsCommand())));
+                .then(literal("tags").executes(new HeldItemTagsCommand()))
+                .then(literal("manifest").executes(new ExportManifestCommand()))
+                .then(literal("export").executes(new ExportGroupsCommand()))
+                .then(literal("explain").executes(new ExplainCommand())
+                        .then(argument(ExplainGroupCommand.GROUP, IdentifierArgumentType.identifier())
+                                .suggests(ExplainGroupCommand::suggest)
+                                .executes(new ExplainGroupCommand()))));
     }
 }
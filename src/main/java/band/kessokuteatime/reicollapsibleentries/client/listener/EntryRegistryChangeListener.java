@@ -0,0 +1,90 @@
+package band.kessokuteatime.reicollapsibleentries.client.listener;
+
+import band.kessokuteatime.reicollapsibleentries.core.ModGroupRegistry;
+import it.unimi.dsi.fastutil.longs.LongList;
+import me.shedaniel.rei.api.client.registry.entry.EntryRegistry;
+import me.shedaniel.rei.api.client.registry.entry.EntryRegistryListener;
+import me.shedaniel.rei.api.common.entry.EntryStack;
+import me.shedaniel.rei.api.common.plugins.PluginManager;
+import net.minecraft.client.MinecraftClient;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Forwards entries added to or removed from REI's entry list outside of reloads to the current
+ * {@link ModGroupRegistry}. Changes are collected and applied once per client tick, so that a
+ * plugin adding entries one by one still causes a single update.
+ */
+public class EntryRegistryChangeListener implements EntryRegistryListener {
+    public static final EntryRegistryChangeListener INSTANCE = new EntryRegistryChangeListener();
+
+    private final List<Change> changes = new ArrayList<>();
+    private boolean scheduled = false;
+
+    /**
+     * Consecutive additions or removals, kept apart so that they are applied in order.
+     */
+    private record Change(boolean addition, List<EntryStack<?>> stacks) {
+    }
+
+    private EntryRegistryChangeListener() {
+    }
+
+    /**
+     * Listens to the entry registry, once even if called on every reload.
+     */
+    public void register() {
+        EntryRegistry.getInstance().removeListener(this);
+        EntryRegistry.getInstance().addListener(this);
+    }
+
+    @Override
+    public void addEntryAfter(@Nullable EntryStack<?> afterEntry, EntryStack<?> stack, long hashExact) {
+        addEntriesAfter(afterEntry, List.of(stack), null);
+    }
+
+    @Override
+    public void addEntriesAfter(@Nullable EntryStack<?> afterEntry, List<EntryStack<?>> stacks, @Nullable LongList hashes) {
+        record(true, stacks);
+    }
+
+    @Override
+    public void removeEntry(EntryStack<?> stack, long hashExact) {
+        removeEntries(List.of(stack), null);
+    }
+
+    @Override
+    public void removeEntries(List<EntryStack<?>> stacks, @Nullable LongList hashes) {
+        record(false, stacks);
+    }
+
+    private synchronized void record(boolean addition, List<EntryStack<?>> stacks) {
+        if (PluginManager.areAnyReloading() || stacks.isEmpty()) return;
+
+        Change last = changes.isEmpty() ? null : changes.get(changes.size() - 1);
+        if (last != null && last.addition() == addition) last.stacks().addAll(stacks);
+        else changes.add(new Change(addition, new ArrayList<>(stacks)));
+
+        if (scheduled) return;
+        scheduled = true;
+        MinecraftClient.getInstance().send(this::flush);
+    }
+
+    private void flush() {
+        List<Change> changes;
+        synchronized (this) {
+            changes = List.copyOf(this.changes);
+            this.changes.clear();
+            scheduled = false;
+        }
+
+        // A reload that started in the meantime picks the changes up anyway
+        if (PluginManager.areAnyReloading()) return;
+        ModGroupRegistry.current().ifPresent(registry -> changes.forEach(change -> registry.update(
+                change.addition() ? change.stacks() : List.of(),
+                change.addition() ? List.of() : change.stacks()
+        )));
+    }
+}
@@ -0,0 +1,50 @@
+package band.kessokuteatime.reicollapsibleentries.config;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable copy of {@link REICollapsibleEntriesConfig}, safe to share between threads.
+ * A reload pins one snapshot, so that it never sees a half-updated config.
+ */
+public record ConfigSnapshot(
+        List<String> customTags,
+        List<String> disabledMods,
+        List<String> disabledFamilies,
+        boolean variantSubgroups,
+        boolean recordSnapshots,
+        boolean autoGroups,
+        boolean autoTags,
+        int autoTagMinSize,
+        double autoTagSimilarity,
+        int autoGroupMinSize,
+        int groupBudget,
+        boolean deferQuarantined,
+        int largeGroupSize,
+        REICollapsibleEntriesConfig.SplitMode largeGroupSplit,
+        int eagerGroups,
+        Map<String, Object> reloadingValues,
+        Map<String, Object> groupingValues
+) {
+    public static ConfigSnapshot of(REICollapsibleEntriesConfig config) {
+        return new ConfigSnapshot(
+                List.copyOf(config.customTags),
+                List.copyOf(config.disabledMods),
+                List.copyOf(config.disabledFamilies),
+                config.variantSubgroups,
+                config.recordSnapshots,
+                config.autoGroups,
+                config.autoTags,
+                config.autoTagMinSize,
+                config.autoTagSimilarity,
+                config.autoGroupMinSize,
+                config.groupBudget,
+                config.deferQuarantined,
+                config.largeGroupSize,
+                config.largeGroupSplit,
+                config.eagerGroups,
+                config.reloadingValues(),
+                config.groupingValues()
+        );
+    }
+}
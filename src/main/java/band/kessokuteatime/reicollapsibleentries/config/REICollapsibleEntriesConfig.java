@@ -6,16 +6,179 @@ import me.shedaniel.autoconfig.ConfigData;
 import me.shedaniel.autoconfig.annotation.Config;
 import me.shedaniel.autoconfig.annotation.ConfigEntry;
 
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.function.Supplier;
 
 @Config(name = "reicollapsibleentries")
 @Config.Gui.Background(Config.Gui.Background.TRANSPARENT)
 public class REICollapsibleEntriesConfig implements ConfigData {
+    /**
+     * Options that are applied to the current collapsible entries without reloading REI.
+     */
+    public static final Set<String> HOT_APPLIED = Set.of("disabledMods", "disabledFamilies");
+
+    /**
+     * Options that change neither which collapsible entries are built nor their members.
+     */
+    public static final Set<String> OUTPUT_NEUTRAL = Set.of("recordSnapshots", "eagerGroups");
+
+    public enum SplitMode {
+        NAMESPACE, PAGES
+    }
+
     @ConfigEntry.Gui.Excluded
     private transient final Supplier<ArrayList<String>> customTagsProvider = ArrayList::new;
 
     @SerdeDefault(provider = "customTagsProvider")
-    @SerdeComment("Define custom tags to create collapsible entries that gathers items with.")
+    @SerdeComment("Define custom tags to create collapsible entries that gathers items with. Entries ending with \"*\", like \"c:ingots/*\", include every tag starting with them.")
     public ArrayList<String> customTags = customTagsProvider.get();
+
+    @ConfigEntry.Gui.Excluded
+    private transient final Supplier<ArrayList<String>> disabledModsProvider = ArrayList::new;
+
+    @SerdeDefault(provider = "disabledModsProvider")
+    @SerdeComment("Mods whose collapsible entries are disabled, like \"create\". Applied without reloading REI.")
+    public ArrayList<String> disabledMods = disabledModsProvider.get();
+
+    @ConfigEntry.Gui.Excluded
+    private transient final Supplier<ArrayList<String>> disabledFamiliesProvider = ArrayList::new;
+
+    @SerdeDefault(provider = "disabledFamiliesProvider")
+    @SerdeComment("Families of collapsible entries that are disabled, like \"create:stone_types\" or \"tconstruct:tools\". Applied without reloading REI.")
+    public ArrayList<String> disabledFamilies = disabledFamiliesProvider.get();
+
+    @ConfigEntry.Gui.Excluded
+    private transient final Supplier<Boolean> variantSubgroupsProvider = () -> false;
+
+    @SerdeDefault(provider = "variantSubgroupsProvider")
+    @SerdeComment("Split collapsible entries like potions and enchanted books into one entry per potion or enchantment.")
+    public boolean variantSubgroups = variantSubgroupsProvider.get();
+
+    @ConfigEntry.Gui.Excluded
+    private transient final Supplier<Boolean> recordSnapshotsProvider = () -> false;
+
+    @SerdeDefault(provider = "recordSnapshotsProvider")
+    @SerdeComment("Write a snapshot of every group's members and evaluation time into the game directory on each reload.")
+    public boolean recordSnapshots = recordSnapshotsProvider.get();
+
+    @ConfigEntry.Gui.Excluded
+    private transient final Supplier<Boolean> autoGroupsProvider = () -> false;
+
+    @SerdeDefault(provider = "autoGroupsProvider")
+    @SerdeComment("Propose extra collapsible entries for identifiers sharing a leading or trailing word, like \"*_spawn_egg\".")
+    public boolean autoGroups = autoGroupsProvider.get();
+
+    @ConfigEntry.Gui.Excluded
+    private transient final Supplier<Boolean> autoTagsProvider = () -> false;
+
+    @SerdeDefault(provider = "autoTagsProvider")
+    @SerdeComment("Create collapsible entries from all large item tags, skipping tags that nearly duplicate a larger one.")
+    public boolean autoTags = autoTagsProvider.get();
+
+    @ConfigEntry.Gui.Excluded
+    private transient final Supplier<Integer> autoTagMinSizeProvider = () -> 16;
+
+    @SerdeDefault(provider = "autoTagMinSizeProvider")
+    @SerdeComment("The minimum count of items a tag must have to become a collapsible entry automatically.")
+    public int autoTagMinSize = autoTagMinSizeProvider.get();
+
+    @ConfigEntry.Gui.Excluded
+    private transient final Supplier<Double> autoTagSimilarityProvider = () -> 0.8;
+
+    @SerdeDefault(provider = "autoTagSimilarityProvider")
+    @SerdeComment("The fraction of a tag's items a larger chosen tag must contain for the tag to be skipped as a near-duplicate.")
+    public double autoTagSimilarity = autoTagSimilarityProvider.get();
+
+    @ConfigEntry.Gui.Excluded
+    private transient final Supplier<Integer> autoGroupMinSizeProvider = () -> 8;
+
+    @SerdeDefault(provider = "autoGroupMinSizeProvider")
+    @SerdeComment("The minimum count of distinct items an automatically proposed collapsible entry must gather.")
+    public int autoGroupMinSize = autoGroupMinSizeProvider.get();
+
+    @ConfigEntry.Gui.Excluded
+    private transient final Supplier<Integer> groupBudgetProvider = () -> 250;
+
+    @SerdeDefault(provider = "groupBudgetProvider")
+    @SerdeComment("The milliseconds a single collapsible entry may take to gather its items before it is quarantined. 0 disables the limit.")
+    public int groupBudget = groupBudgetProvider.get();
+
+    @ConfigEntry.Gui.Excluded
+    private transient final Supplier<Boolean> deferQuarantinedProvider = () -> true;
+
+    @SerdeDefault(provider = "deferQuarantinedProvider")
+    @SerdeComment("Gather quarantined collapsible entries in the background instead of skipping them.")
+    public boolean deferQuarantined = deferQuarantinedProvider.get();
+
+    @ConfigEntry.Gui.Excluded
+    private transient final Supplier<Integer> largeGroupSizeProvider = () -> 0;
+
+    @SerdeDefault(provider = "largeGroupSizeProvider")
+    @SerdeComment("Split collapsible entries with more items than this into smaller ones, so that expanding them stays fast. 0 disables splitting.")
+    public int largeGroupSize = largeGroupSizeProvider.get();
+
+    @ConfigEntry.Gui.Excluded
+    private transient final Supplier<SplitMode> largeGroupSplitProvider = () -> SplitMode.NAMESPACE;
+
+    @SerdeDefault(provider = "largeGroupSplitProvider")
+    @SerdeComment("How to split large collapsible entries: NAMESPACE splits by mod first, PAGES only into pages of the size above.")
+    @ConfigEntry.Gui.EnumHandler(option = ConfigEntry.Gui.EnumHandler.EnumDisplayOption.BUTTON)
+    public SplitMode largeGroupSplit = largeGroupSplitProvider.get();
+
+    @ConfigEntry.Gui.Excluded
+    private transient final Supplier<Integer> eagerGroupsProvider = () -> 0;
+
+    @SerdeDefault(provider = "eagerGroupsProvider")
+    @SerdeComment("Count expansions locally and gather only this many of the most expanded collapsible entries while reloading, the rest in the background. 0 gathers all of them while reloading, as does the first run and enabling auto groups or large entry splitting.")
+    public int eagerGroups = eagerGroupsProvider.get();
+
+    /**
+     * Gets the values of all options that are not {@link #HOT_APPLIED}, so that changes requiring
+     * REI to reload can be told apart.
+     *
+     * @return The values by option name, copied and sorted.
+     */
+    public Map<String, Object> reloadingValues() {
+        return values(HOT_APPLIED);
+    }
+
+    /**
+     * Gets the values of all options that change the built collapsible entries, so that a
+     * manifest stays valid across changes of the other ones.
+     *
+     * @return The values by option name, copied and sorted.
+     */
+    public Map<String, Object> groupingValues() {
+        Set<String> excluded = new HashSet<>(HOT_APPLIED);
+        excluded.addAll(OUTPUT_NEUTRAL);
+        return values(excluded);
+    }
+
+    private Map<String, Object> values(Set<String> excluded) {
+        // The order of reflected fields is unspecified, so they are sorted to stay comparable between launches
+        Map<String, Object> values = new TreeMap<>();
+        Arrays.stream(getClass().getFields())
+                .filter(field -> !Modifier.isStatic(field.getModifiers()))
+                .filter(field -> !excluded.contains(field.getName()))
+                .forEach(field -> values.put(field.getName(), valueOf(field)));
+        return Collections.unmodifiableMap(values);
+    }
+
+    private Object valueOf(Field field) {
+        try {
+            Object value = field.get(this);
+            return value instanceof List<?> list ? List.copyOf(list) : String.valueOf(value);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
 }
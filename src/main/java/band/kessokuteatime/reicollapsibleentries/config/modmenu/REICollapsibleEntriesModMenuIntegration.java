@@ -1,12 +1,52 @@
 package band.kessokuteatime.reicollapsibleentries.config.modmenu;
 
 import band.kessokuteatime.reicollapsibleentries.REICollapsibleEntries;
+import band.kessokuteatime.reicollapsibleentries.core.ModEntry;
+import band.kessokuteatime.reicollapsibleentries.core.ModGroupRegistry;
 import com.terraformersmc.modmenu.api.ConfigScreenFactory;
 import com.terraformersmc.modmenu.api.ModMenuApi;
 import me.shedaniel.autoconfig.AutoConfig;
 import band.kessokuteatime.reicollapsibleentries.config.REICollapsibleEntriesConfig;
+import me.shedaniel.autoconfig.gui.registry.GuiRegistry;
+import me.shedaniel.clothconfig2.api.AbstractConfigListEntry;
+import me.shedaniel.clothconfig2.api.ConfigEntryBuilder;
+import net.minecraft.text.Text;
+import net.minecraft.util.Identifier;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
 
 public class REICollapsibleEntriesModMenuIntegration implements ModMenuApi {
+    static {
+        GuiRegistry registry = AutoConfig.getGuiRegistry(REICollapsibleEntriesConfig.class);
+
+        registry.registerPredicateProvider(
+                (i13n, field, config, defaults, guiProvider) -> toggles(
+                        i13n,
+                        Arrays.stream(ModEntry.values())
+                                .filter(modEntry -> modEntry != ModEntry.THIS)
+                                .map(ModEntry::modid)
+                                .toList(),
+                        ((REICollapsibleEntriesConfig) config).disabledMods
+                ),
+                field -> field.getName().equals("disabledMods")
+        );
+
+        registry.registerPredicateProvider(
+                (i13n, field, config, defaults, guiProvider) -> toggles(
+                        i13n,
+                        ModGroupRegistry.current()
+                                .map(ModGroupRegistry::families)
+                                .map(families -> families.stream().map(Identifier::toString).toList())
+                                .orElse(List.of()),
+                        ((REICollapsibleEntriesConfig) config).disabledFamilies
+                ),
+                field -> field.getName().equals("disabledFamilies")
+        );
+    }
+
     @Override
     public ConfigScreenFactory<?> getModConfigScreenFactory() {
         return parent -> {
@@ -14,4 +54,27 @@ public class REICollapsibleEntriesModMenuIntegration implements ModMenuApi {
             return AutoConfig.getConfigScreen(REICollapsibleEntriesConfig.class, parent).get();
         };
     }
+
+    /**
+     * Builds a sub-category of enable toggles backed by a list of disabled keys. Keys that are
+     * disabled but currently unknown are listed as well, so that they can be enabled again.
+     */
+    @SuppressWarnings("rawtypes")
+    private static List<AbstractConfigListEntry> toggles(String i13n, Collection<String> keys, List<String> disabled) {
+        ConfigEntryBuilder builder = ConfigEntryBuilder.create();
+        TreeSet<String> all = new TreeSet<>(keys);
+        all.addAll(disabled);
+
+        List<AbstractConfigListEntry> entries = all.stream()
+                .map(key -> (AbstractConfigListEntry) builder.startBooleanToggle(Text.literal(key), !disabled.contains(key))
+                        .setDefaultValue(true)
+                        .setSaveConsumer(enabled -> {
+                            disabled.remove(key);
+                            if (!enabled) disabled.add(key);
+                        })
+                        .build())
+                .toList();
+
+        return List.of(builder.startSubCategory(Text.translatable(i13n), entries).build());
+    }
 }
@@ -0,0 +1,97 @@
+package band.kessokuteatime.reicollapsibleentries.core;
+
+import me.shedaniel.rei.api.common.entry.EntryStack;
+import me.shedaniel.rei.api.common.entry.type.EntryType;
+import net.minecraft.registry.Registries;
+import net.minecraft.registry.Registry;
+import net.minecraft.registry.tag.TagKey;
+import net.minecraft.util.Identifier;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Finds groups that can never match in this instance, before any of them is optimized or
+ * resolved. A group is dead if its predicate requires an exact identifier, path, namespace or
+ * entry type that no entry has, or a tag that has no members.
+ * <br />
+ * Only requirements are checked: negations and wrapped lambdas are assumed to match, so a group
+ * is never eliminated by mistake.
+ */
+public class DeadRuleEliminator {
+    private final Set<String> namespaces = new HashSet<>();
+    private final Set<Identifier> identifiers = new HashSet<>();
+    private final Set<String> paths = new HashSet<>();
+    private final Set<EntryType<?>> types = new HashSet<>();
+    private final Set<String> tagPaths = new HashSet<>();
+
+    private DeadRuleEliminator(EntryIndex index) {
+        // Variants share their type and identifier, so their representatives are enough
+        for (int representative : index.representatives()) {
+            EntryStack<?> entryStack = index.get(representative);
+            types.add(entryStack.getType());
+
+            Identifier identifier = entryStack.getIdentifier();
+            if (identifier == null) continue;
+            namespaces.add(identifier.getNamespace());
+            identifiers.add(identifier);
+            paths.add(identifier.getPath());
+        }
+
+        Registries.ITEM.streamTags().forEach(tagKey -> tagPaths.add(tagKey.id().getPath()));
+        Registries.FLUID.streamTags().forEach(tagKey -> tagPaths.add(tagKey.id().getPath()));
+    }
+
+    public static DeadRuleEliminator of(EntryIndex index) {
+        return new DeadRuleEliminator(index);
+    }
+
+    /**
+     * @param group The group to check.
+     * @return <code>true</code> if the group can't have any member.
+     */
+    public boolean dead(ModGroup group) {
+        if (group.parent() != null && dead(group.parent())) return true;
+        if (!group.parts().isEmpty()) return group.parts().stream().allMatch(this::dead);
+        if (group.stacks() != null) return group.stacks().isEmpty();
+        return group.predicate() != null && dead(group.predicate());
+    }
+
+    /**
+     * @param predicate The predicate to check.
+     * @return <code>true</code> if the predicate can't pass for any entry.
+     */
+    public boolean dead(ModPredicate predicate) {
+        if (predicate instanceof JunctionPredicate junction) {
+            return junction.conjunction()
+                    ? junction.operands().stream().anyMatch(this::dead)
+                    : junction.operands().stream().allMatch(this::dead);
+        }
+
+        if (!(predicate instanceof LeafPredicate leaf)) return false;
+
+        Object argument = leaf.argument();
+        return switch (leaf.kind()) {
+            case CONSTANT -> !(Boolean) argument;
+            case MOD -> ((Set<?>) argument).stream().noneMatch(namespaces::contains);
+            case ID -> !identifiers.contains((Identifier) argument);
+            case PATH -> !paths.contains((String) argument);
+            case TYPE -> !types.contains((EntryType<?>) argument);
+            case TAG_PATH -> !tagPaths.contains((String) argument);
+            case TAG -> empty((TagKey<?>) argument);
+            default -> false;
+        };
+    }
+
+    private static boolean empty(TagKey<?> tagKey) {
+        Registry<?> registry = Registries.REGISTRIES.get(tagKey.registry().getValue());
+        return registry != null && empty(registry, tagKey);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> boolean empty(Registry<T> registry, TagKey<?> tagKey) {
+        return registry.getEntryList((TagKey<T>) tagKey)
+                .map(entries -> entries.size() == 0)
+                .orElse(true);
+    }
+}
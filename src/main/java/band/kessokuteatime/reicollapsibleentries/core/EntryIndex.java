@@ -0,0 +1,187 @@
+package band.kessokuteatime.reicollapsibleentries.core;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntCollection;
+import it.unimi.dsi.fastutil.ints.IntIterator;
+import it.unimi.dsi.fastutil.ints.IntList;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongList;
+import me.shedaniel.rei.api.common.entry.EntryStack;
+import me.shedaniel.rei.api.common.util.EntryStacks;
+import net.minecraft.util.Identifier;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A view of REI's entry list, with the exact hash of every entry computed once.
+ * <br />
+ * Entries of the same type and identifier are variants of each other, differing only in their
+ * data components. Each set of variants is keyed by its first entry, the representative, so that
+ * checks that only look at types, identifiers and tags can run once per representative.
+ * <br />
+ * Changes to the entry list are applied in place through {@link #update}, which appends added
+ * entries and leaves removed ones in place as tombstones, so that positions never move and a
+ * change costs as much as its own size. The index is not thread-safe: it is only changed on the
+ * render thread while no group is being resolved in the background.
+ */
+public class EntryIndex {
+    private final List<EntryStack<?>> entries = new ArrayList<>();
+    private final List<EntryStack<?>> view = Collections.unmodifiableList(entries);
+    private final LongList hashes = new LongArrayList();
+    private final List<IntList> variants = new ArrayList<>();
+    private final Map<VariantKey, IntList> byKey = new HashMap<>();
+    private final BitSet removed = new BitSet();
+    private @Nullable int[] representatives;
+
+    private record VariantKey(Identifier type, Identifier identifier) {
+    }
+
+    private EntryIndex(List<? extends EntryStack<?>> entries) {
+        entries.forEach(this::append);
+    }
+
+    private static @Nullable VariantKey key(EntryStack<?> entryStack) {
+        Identifier identifier = entryStack.getIdentifier();
+        return identifier == null ? null : new VariantKey(entryStack.getType().getId(), identifier);
+    }
+
+    private void append(EntryStack<?> entryStack) {
+        int position = entries.size();
+        entries.add(entryStack);
+        hashes.add(EntryStacks.hashExact(entryStack));
+        this.variants.add(null);
+
+        // Entries without an identifier have no variants but themselves
+        VariantKey key = key(entryStack);
+        IntList variants = key == null ? null : byKey.get(key);
+        if (variants == null) {
+            variants = new IntArrayList(1);
+            this.variants.set(position, variants);
+            if (key != null) byKey.put(key, variants);
+        }
+        variants.add(position);
+    }
+
+    private void remove(int position) {
+        if (removed.get(position)) return;
+        removed.set(position);
+
+        VariantKey key = key(entries.get(position));
+        IntList variants = key == null ? this.variants.get(position) : byKey.get(key);
+        if (variants == null) return;
+
+        // The next variant becomes the representative if the current one is removed
+        this.variants.set(variants.getInt(0), null);
+        variants.rem(position);
+        if (!variants.isEmpty()) this.variants.set(variants.getInt(0), variants);
+        else if (key != null) byKey.remove(key);
+    }
+
+    public static EntryIndex of(List<? extends EntryStack<?>> entries) {
+        return new EntryIndex(entries);
+    }
+
+    /**
+     * Adds and removes entries in place. Every entry keeps its position, added entries are
+     * appended and removed ones stay in place, left out of the representatives and variants.
+     * Only the changed entries are visited, apart from the representatives, which are collected
+     * again on their next use.
+     *
+     * @param added   The entries to append.
+     * @param removed The positions of the entries to remove.
+     */
+    public void update(List<? extends EntryStack<?>> added, IntCollection removed) {
+        for (IntIterator iterator = removed.iterator(); iterator.hasNext(); ) {
+            remove(iterator.nextInt());
+        }
+        added.forEach(this::append);
+        representatives = null;
+    }
+
+    /**
+     * @return The count of positions, including removed entries.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return The count of entries that are not removed.
+     */
+    public int count() {
+        return entries.size() - removed.cardinality();
+    }
+
+    public boolean removed(int index) {
+        return removed.get(index);
+    }
+
+    /**
+     * Finds the position of an entry that is not removed.
+     *
+     * @param entryStack The entry to look up.
+     * @return The position, or <code>-1</code> if the entry isn't indexed or has no identifier.
+     */
+    public int position(EntryStack<?> entryStack) {
+        VariantKey key = key(entryStack);
+        IntList variants = key == null ? null : byKey.get(key);
+        if (variants == null) return -1;
+
+        long hash = EntryStacks.hashExact(entryStack);
+        for (int i = 0; i < variants.size(); i++) {
+            if (hashes.getLong(variants.getInt(i)) == hash) return variants.getInt(i);
+        }
+        return -1;
+    }
+
+    public EntryStack<?> get(int index) {
+        return entries.get(index);
+    }
+
+    public long hash(int index) {
+        return hashes.getLong(index);
+    }
+
+    /**
+     * @return The indices of the first entry of every set of variants, collected again after an
+     * {@link #update}.
+     */
+    public int[] representatives() {
+        if (representatives == null) {
+            IntList representatives = new IntArrayList();
+            for (int i = 0; i < variants.size(); i++) {
+                if (variants.get(i) != null) representatives.add(i);
+            }
+            this.representatives = representatives.toIntArray();
+        }
+        return representatives;
+    }
+
+    /**
+     * @param representative The index of a representative.
+     * @return The indices of all variants of the representative, including itself.
+     */
+    public IntList variants(int representative) {
+        return variants.get(representative);
+    }
+
+    /**
+     * @param type       The identifier of the entry type.
+     * @param identifier The identifier of the entry.
+     * @return The index of the representative of the matching variants, or <code>-1</code> if there is none.
+     */
+    public int representative(Identifier type, Identifier identifier) {
+        IntList variants = byKey.get(new VariantKey(type, identifier));
+        return variants == null ? -1 : variants.getInt(0);
+    }
+
+    public List<EntryStack<?>> entries() {
+        return view;
+    }
+}
@@ -0,0 +1,86 @@
+package band.kessokuteatime.reicollapsibleentries.core;
+
+import band.kessokuteatime.reicollapsibleentries.REICollapsibleEntries;
+import com.google.gson.stream.JsonWriter;
+import me.shedaniel.rei.api.common.entry.EntryStack;
+import net.fabricmc.loader.api.FabricLoader;
+import net.minecraft.text.TranslatableTextContent;
+import net.minecraft.util.Identifier;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Writes resolved groups as JSON Lines for auditing, one group per line:
+ * <pre>
+ * {"id":"minecraft:potions","family":"minecraft:potions","name":"collection.minecraft.potions","source":"MC","enabled":true,"size":42,"members":["minecraft:potion"]}
+ * </pre>
+ * <code>source</code> is the {@link ModEntry} whose rules built the group, see
+ * {@link ModGroup#source()}. <code>members</code> lists the distinct identifiers of
+ * the members in order, while <code>size</code> counts every variant.
+ * <br />
+ * Every group is streamed straight into the file, so only one group's identifiers are held in
+ * memory at a time.
+ */
+public class GroupExport {
+    public static final Path EXPORTS = FabricLoader.getInstance().getGameDir()
+            .resolve(REICollapsibleEntries.ID).resolve("exports");
+
+    /**
+     * Creates a new empty file under {@link #EXPORTS}, named after the current time.
+     *
+     * @return The path of the created file.
+     * @throws IOException If the file cannot be created.
+     */
+    public static Path path() throws IOException {
+        return OutputFiles.create(EXPORTS, ".jsonl");
+    }
+
+    /**
+     * Writes the given groups. Safe to call off the render thread with groups that are resolved.
+     *
+     * @param path   The path to write to.
+     * @param groups The groups to write. Unresolved groups are skipped.
+     * @return The count of written groups.
+     * @throws IOException If the export cannot be written.
+     */
+    public static int write(Path path, List<ModGroup> groups) throws IOException {
+        int written = 0;
+        try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+            for (ModGroup group : groups) {
+                if (!group.resolved()) continue;
+
+                // Writes through without buffering, and isn't closed as that would close the file
+                JsonWriter json = new JsonWriter(writer);
+                json.beginObject();
+                json.name("id").value(group.identifier().toString());
+                json.name("family").value(group.family().toString());
+                json.name("name").value(group.name().getContent() instanceof TranslatableTextContent translatable
+                        ? translatable.getKey()
+                        : group.name().getString());
+                json.name("source").value(group.source() != null ? group.source().name() : null);
+                json.name("enabled").value(group.enabled());
+
+                List<EntryStack<?>> members = group.members();
+                json.name("size").value(members.size());
+                json.name("members").beginArray();
+                Set<Identifier> seen = new HashSet<>();
+                for (EntryStack<?> member : members) {
+                    Identifier identifier = member.getIdentifier();
+                    if (identifier != null && seen.add(identifier)) json.value(identifier.toString());
+                }
+                json.endArray();
+                json.endObject();
+
+                writer.newLine();
+                written++;
+            }
+        }
+        return written;
+    }
+}
@@ -0,0 +1,308 @@
+package band.kessokuteatime.reicollapsibleentries.core;
+
+import band.kessokuteatime.reicollapsibleentries.REICollapsibleEntries;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.mojang.serialization.JsonOps;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
+import me.shedaniel.rei.api.common.entry.EntryStack;
+import net.fabricmc.loader.api.FabricLoader;
+import net.fabricmc.loader.api.ModContainer;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.network.ClientPlayNetworkHandler;
+import net.minecraft.component.ComponentChanges;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.registry.DynamicRegistryManager;
+import net.minecraft.registry.Registries;
+import net.minecraft.registry.RegistryWrapper;
+import net.minecraft.registry.entry.RegistryEntry;
+import net.minecraft.text.Text;
+import net.minecraft.util.Identifier;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * A precomputed list of resolved groups and their members, bound to a fingerprint of the loaded
+ * mods, the item tags, the entry list and the options requiring a reload. Modpacks can ship it
+ * next to the config, so that groups are registered straight from it instead of evaluating
+ * every predicate again.
+ * <br />
+ * Members are stored by entry type and identifier, followed by the {@link #signature signatures}
+ * of the matching variants if not all of them are members:
+ * <pre>
+ * group minecraft:potions {"translate":"collection.minecraft.potions"}
+ *   minecraft:item minecraft:potion 6f1c0e9a2b3d4c5e,0a9b8c7d6e5f4a3b
+ * </pre>
+ * Signatures are derived from the encoded data components instead of the order of the entry
+ * list, so a manifest never picks the wrong variants, even for components that depend on data
+ * driven registries like enchantments.
+ */
+public class GroupManifest {
+    public static final Path PATH = FabricLoader.getInstance().getConfigDir()
+            .resolve(REICollapsibleEntries.ID + ".manifest");
+    public static final int VERSION = 2;
+
+    private static final String HEADER = "# " + REICollapsibleEntries.NAME + " manifest";
+    private static final String NO_COMPONENTS = "-", UNENCODABLE = "?";
+
+    /**
+     * Creates a new empty file under {@link GroupExport#EXPORTS}, named after the current time.
+     * Exports never replace the manifest in use, which is only read from {@link #PATH}.
+     *
+     * @return The path of the created file.
+     * @throws IOException If the file cannot be created.
+     */
+    public static Path exportPath() throws IOException {
+        return OutputFiles.create(GroupExport.EXPORTS, ".manifest");
+    }
+
+    /**
+     * Computes the fingerprint of the running instance.
+     *
+     * @param index          The entries the groups are resolved against.
+     * @param groupingValues The options the groups are built with, by name.
+     * @return The fingerprint, as a hexadecimal string.
+     */
+    public static String fingerprint(EntryIndex index, Map<String, Object> groupingValues) {
+        MessageDigest digest = digest();
+
+        FabricLoader.getInstance().getAllMods().stream()
+                .map(ModContainer::getMetadata)
+                .map(metadata -> metadata.getId() + "@" + metadata.getVersion().getFriendlyString())
+                .sorted()
+                .forEach(mod -> update(digest, mod));
+
+        Registries.ITEM.streamTags()
+                .sorted(Comparator.comparing(tagKey -> tagKey.id().toString()))
+                .forEach(tagKey -> {
+                    update(digest, "#" + tagKey.id());
+                    List<String> items = new ArrayList<>();
+                    for (RegistryEntry<Item> entry : Registries.ITEM.iterateEntries(tagKey)) {
+                        items.add(Registries.ITEM.getId(entry.value()).toString());
+                    }
+                    items.stream().sorted().forEach(item -> update(digest, item));
+                });
+
+        update(digest, "entries " + index.count());
+        update(digest, "options " + groupingValues);
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) '\n');
+    }
+
+    /**
+     * @return The registries of the joined world, or the built-in ones outside of a world.
+     */
+    public static RegistryWrapper.WrapperLookup registries() {
+        ClientPlayNetworkHandler networkHandler = MinecraftClient.getInstance().getNetworkHandler();
+        return networkHandler != null ? networkHandler.getRegistryManager() : DynamicRegistryManager.of(Registries.REGISTRIES);
+    }
+
+    /**
+     * Gets a key telling the variants of an entry apart, which unlike exact hashes stays the
+     * same between launches: a hash of the item stack's encoded component changes.
+     *
+     * @param entryStack The entry.
+     * @param registries The registries to encode registry references with.
+     * @return The signature, or <code>-</code> for entries without component changes.
+     */
+    static String signature(EntryStack<?> entryStack, RegistryWrapper.WrapperLookup registries) {
+        if (!(entryStack.getValue() instanceof ItemStack itemStack) || itemStack.getComponentChanges().isEmpty())
+            return NO_COMPONENTS;
+
+        String encoded;
+        try {
+            encoded = ComponentChanges.CODEC.encodeStart(registries.getOps(JsonOps.INSTANCE), itemStack.getComponentChanges())
+                    .result()
+                    .map(element -> sorted(element).toString())
+                    .orElse(UNENCODABLE);
+        } catch (RuntimeException e) {
+            // Components without a codec can't be told apart, their variants are taken in order
+            encoded = UNENCODABLE;
+        }
+
+        MessageDigest digest = digest();
+        update(digest, encoded);
+        return HexFormat.of().formatHex(digest.digest(), 0, Long.BYTES);
+    }
+
+    /**
+     * Sorts the keys of all objects, as components are encoded in no particular order.
+     */
+    private static JsonElement sorted(JsonElement element) {
+        if (element instanceof JsonObject object) {
+            JsonObject sorted = new JsonObject();
+            object.keySet().stream().sorted().forEach(key -> sorted.add(key, sorted(object.get(key))));
+            return sorted;
+        }
+        if (element instanceof JsonArray array) {
+            JsonArray sorted = new JsonArray(array.size());
+            array.forEach(child -> sorted.add(sorted(child)));
+            return sorted;
+        }
+        return element;
+    }
+
+    /**
+     * Writes the resolved groups of a registry into a manifest.
+     *
+     * @param path        The path to write to.
+     * @param fingerprint The fingerprint of the running instance.
+     * @param registry    The registry whose groups are written. Unresolved groups are skipped.
+     * @param index       The entries the groups are resolved against.
+     * @param registries  The registries to encode the components of variants with.
+     * @return The count of written groups.
+     * @throws IOException If the manifest cannot be written.
+     */
+    public static int write(Path path, String fingerprint, ModGroupRegistry registry, EntryIndex index, RegistryWrapper.WrapperLookup registries) throws IOException {
+        int written = 0;
+        try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+            writer.write(HEADER);
+            writer.newLine();
+            writer.write("version " + VERSION);
+            writer.newLine();
+            writer.write("fingerprint " + fingerprint);
+            writer.newLine();
+
+            for (ModGroup group : registry.groups()) {
+                // Dormant groups could only gain members through updates, which manifest groups don't get
+                if (!group.resolved() || group.members().isEmpty()) continue;
+
+                writer.write("group " + group.identifier() + " "
+                        + Text.Serialization.toJsonString(group.name(), DynamicRegistryManager.EMPTY));
+                writer.newLine();
+
+                // Members keep their order, variants of the same entry share a line
+                Map<Integer, List<EntryStack<?>>> lines = new LinkedHashMap<>();
+                for (EntryStack<?> member : group.members()) {
+                    Identifier identifier = member.getIdentifier();
+                    if (identifier == null || index.position(member) < 0) continue;
+                    lines.computeIfAbsent(index.representative(member.getType().getId(), identifier), k -> new ArrayList<>()).add(member);
+                }
+
+                for (Map.Entry<Integer, List<EntryStack<?>>> line : lines.entrySet()) {
+                    EntryStack<?> representative = index.get(line.getKey());
+                    writer.write("  " + representative.getType().getId() + " " + representative.getIdentifier());
+                    if (index.variants(line.getKey()).size() != line.getValue().size()) {
+                        writer.write(" " + String.join(",", line.getValue().stream().map(member -> signature(member, registries)).toList()));
+                    }
+                    writer.newLine();
+                }
+                written++;
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Reads the groups of a manifest, if it matches the running instance.
+     *
+     * @param path        The path to read from.
+     * @param fingerprint The fingerprint of the running instance.
+     * @param index       The entries to take the members from.
+     * @param registries  The registries to encode the components of variants with.
+     * @return The resolved groups, or nothing if the manifest is missing, outdated or doesn't match.
+     * @throws IOException If the manifest cannot be read.
+     */
+    public static Optional<List<ModGroup>> read(Path path, String fingerprint, EntryIndex index, RegistryWrapper.WrapperLookup registries) throws IOException {
+        if (!Files.isRegularFile(path)) return Optional.empty();
+
+        try (BufferedReader reader = Files.newBufferedReader(path)) {
+            if (!HEADER.equals(reader.readLine())
+                    || !("version " + VERSION).equals(reader.readLine())
+                    || !("fingerprint " + fingerprint).equals(reader.readLine())) {
+                return Optional.empty();
+            }
+
+            List<ModGroup> groups = new ArrayList<>();
+            Identifier identifier = null;
+            Text name = null;
+            List<EntryStack<?>> members = new ArrayList<>();
+
+            // Variants by signature, only computed for representatives that are listed partially
+            Map<Integer, Map<String, IntList>> signatures = new HashMap<>();
+
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                if (line.startsWith("group ")) {
+                    if (identifier != null) groups.add(resolved(identifier, name, members));
+
+                    String[] split = line.split(" ", 3);
+                    identifier = Identifier.of(split[1]);
+                    name = Text.Serialization.fromJson(split[2], DynamicRegistryManager.EMPTY);
+                    members = new ArrayList<>();
+                } else if (line.startsWith("  ") && identifier != null) {
+                    String[] split = line.trim().split(" ");
+                    int representative = index.representative(Identifier.of(split[0]), Identifier.of(split[1]));
+                    if (representative < 0) return Optional.empty();
+
+                    IntList variants = index.variants(representative);
+                    if (split.length < 3) {
+                        for (int i = 0; i < variants.size(); i++) {
+                            members.add(index.get(variants.getInt(i)));
+                        }
+                        continue;
+                    }
+
+                    Map<String, IntList> bySignature = signatures.computeIfAbsent(representative, key -> {
+                        Map<String, IntList> map = new HashMap<>();
+                        for (int i = 0; i < variants.size(); i++) {
+                            map.computeIfAbsent(signature(index.get(variants.getInt(i)), registries), k -> new IntArrayList())
+                                    .add(variants.getInt(i));
+                        }
+                        return map;
+                    });
+
+                    // Variants sharing a signature are taken in order
+                    Map<String, Integer> taken = new HashMap<>();
+                    for (String signature : split[2].split(",")) {
+                        IntList matching = bySignature.get(signature);
+                        int nth = taken.merge(signature, 1, Integer::sum) - 1;
+                        if (matching == null || nth >= matching.size()) return Optional.empty();
+                        members.add(index.get(matching.getInt(nth)));
+                    }
+                }
+            }
+            if (identifier != null) groups.add(resolved(identifier, name, members));
+
+            return Optional.of(groups);
+        } catch (RuntimeException e) {
+            REICollapsibleEntries.LOGGER.warn("Ignoring malformed collapsible entries manifest {}", path, e);
+            return Optional.empty();
+        }
+    }
+
+    private static ModGroup resolved(Identifier identifier, Text name, List<EntryStack<?>> members) {
+        ModGroup group = new ModGroup(identifier, name != null ? name : Text.literal(identifier.toString()), members);
+        group.resolve(null);
+        return group;
+    }
+}
@@ -0,0 +1,111 @@
+package band.kessokuteatime.reicollapsibleentries.core;
+
+import me.shedaniel.rei.api.common.entry.EntryStack;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * A conjunction or disjunction of any number of operands. Nested junctions of the same
+ * kind are flattened, so that <code>a.and(b).and(c)</code> becomes a single node with
+ * three operands which can be freely reordered.
+ */
+class JunctionPredicate implements ModPredicate {
+    private final boolean conjunction;
+    private final ModPredicate[] operands;
+    private final int hash;
+
+    private JunctionPredicate(boolean conjunction, ModPredicate[] operands) {
+        this.conjunction = conjunction;
+        this.operands = operands;
+
+        // Independent of the order of operands, as reordering doesn't change the result
+        int hash = Boolean.hashCode(conjunction);
+        for (ModPredicate operand : operands) {
+            hash += operand.hashCode();
+        }
+        this.hash = hash;
+    }
+
+    static ModPredicate of(boolean conjunction, ModPredicate... operands) {
+        List<ModPredicate> flattened = new ArrayList<>();
+        for (ModPredicate operand : operands) {
+            if (operand instanceof JunctionPredicate junction && junction.conjunction == conjunction)
+                flattened.addAll(junction.operands());
+            else
+                flattened.add(operand);
+        }
+
+        return switch (flattened.size()) {
+            case 0 -> conjunction ? ModPredicate.pass() : ModPredicate.fail();
+            case 1 -> flattened.get(0);
+            default -> new JunctionPredicate(conjunction, flattened.toArray(ModPredicate[]::new));
+        };
+    }
+
+    boolean conjunction() {
+        return conjunction;
+    }
+
+    /**
+     * Creates a junction of the same kind over the given operands.
+     *
+     * @param operands The new operands.
+     * @return The new junction.
+     */
+    ModPredicate withOperands(List<ModPredicate> operands) {
+        return of(conjunction, operands.toArray(ModPredicate[]::new));
+    }
+
+    @Override
+    public List<ModPredicate> operands() {
+        return List.of(operands);
+    }
+
+    @Override
+    public boolean test(EntryStack<?> entryStack) {
+        for (ModPredicate operand : operands) {
+            if (operand.test(entryStack) != conjunction)
+                return !conjunction;
+        }
+        return conjunction;
+    }
+
+    @Override
+    public boolean test(EntryIndex index, int position) {
+        for (ModPredicate operand : operands) {
+            if (operand.test(index, position) != conjunction)
+                return !conjunction;
+        }
+        return conjunction;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        return obj instanceof JunctionPredicate junction
+                && conjunction == junction.conjunction && hash == junction.hash
+                && operands.length == junction.operands.length
+                && new HashSet<>(Arrays.asList(operands)).equals(new HashSet<>(Arrays.asList(junction.operands)));
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String label() {
+        return conjunction ? "and" : "or";
+    }
+
+    @Override
+    public String toString() {
+        return (conjunction ? "and" : "or") + List.of(operands).stream()
+                .map(Object::toString)
+                .collect(Collectors.joining(", ", "(", ")"));
+    }
+}
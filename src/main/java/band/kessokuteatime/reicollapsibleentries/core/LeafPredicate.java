@@ -0,0 +1,64 @@
+package band.kessokuteatime.reicollapsibleentries.core;
+
+import me.shedaniel.rei.api.common.entry.EntryStack;
+
+import java.util.Locale;
+import java.util.function.Predicate;
+
+/**
+ * A single check against an {@link EntryStack}, remembering what kind of check it is and
+ * the argument it was built from.
+ */
+class LeafPredicate implements ModPredicate {
+    static final LeafPredicate PASS = new LeafPredicate(Kind.CONSTANT, true, entryStack -> true);
+    static final LeafPredicate FAIL = new LeafPredicate(Kind.CONSTANT, false, entryStack -> false);
+
+    enum Kind {
+        CONSTANT, MOD, ID, PATH, PATH_CONTAINS, PATH_LEADING, PATH_TRAILING, TAG_PATH, TAG, TYPE, OPAQUE
+    }
+
+    private final Kind kind;
+    private final Object argument;
+    private final Predicate<EntryStack<?>> predicate;
+
+    LeafPredicate(Kind kind, Object argument, Predicate<EntryStack<?>> predicate) {
+        this.kind = kind;
+        this.argument = argument;
+        this.predicate = predicate;
+    }
+
+    Kind kind() {
+        return kind;
+    }
+
+    Object argument() {
+        return argument;
+    }
+
+    @Override
+    public boolean variantInvariant() {
+        return kind != Kind.OPAQUE;
+    }
+
+    @Override
+    public boolean test(EntryStack<?> entryStack) {
+        return predicate.test(entryStack);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        return kind != Kind.OPAQUE && obj instanceof LeafPredicate leaf
+                && kind == leaf.kind && argument.equals(leaf.argument);
+    }
+
+    @Override
+    public int hashCode() {
+        return kind == Kind.OPAQUE ? System.identityHashCode(this) : 31 * kind.hashCode() + argument.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return kind.name().toLowerCase(Locale.ROOT) + "(" + (kind == Kind.OPAQUE ? "?" : argument) + ")";
+    }
+}
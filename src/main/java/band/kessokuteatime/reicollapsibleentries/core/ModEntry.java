@@ -1,7 +1,6 @@
 package band.kessokuteatime.reicollapsibleentries.core;
 
 import band.kessokuteatime.reicollapsibleentries.REICollapsibleEntries;
-import me.shedaniel.rei.api.client.registry.entry.CollapsibleEntryRegistry;
 import me.shedaniel.rei.api.common.util.EntryIngredients;
 import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
@@ -15,6 +14,7 @@ import org.jetbrains.annotations.Nullable;
 
 import java.util.Arrays;
 import java.util.Objects;
+import java.util.Optional;
 
 public enum ModEntry {
     THIS(REICollapsibleEntries.ID),
@@ -42,6 +42,16 @@ public enum ModEntry {
         return modid;
     }
 
+    /**
+     * @param modid The mod id to look up.
+     * @return The entry of the given mod id, if any.
+     */
+    public static Optional<ModEntry> byModid(String modid) {
+        return Arrays.stream(values())
+                .filter(modEntry -> modEntry.modid().equals(modid))
+                .findFirst();
+    }
+
     public Identifier id(String... path) {
         return Identifier.of(modid(), String.join("/", path));
     }
@@ -97,7 +107,7 @@ public enum ModEntry {
     }
 
     public ModPredicateBuilder build(Text name, String... paths) {
-        return new ModPredicateBuilder(id(paths), name, ModPredicate.fail());
+        return ModPredicateBuilder.of(this, id(paths), name);
     }
 
     public ModPredicateBuilder buildTagged(String... paths) {
@@ -115,14 +125,16 @@ public enum ModEntry {
      * @param tagPaths The tag's paths.
      */
     public void registerCollapsibleEntryFromTag(
-            CollapsibleEntryRegistry registry,
+            ModGroupRegistry registry,
             String... tagPaths
     ) {
-        registry.group(
+        ModGroup group = new ModGroup(
                 id(tagPaths),
                 nameTagged(tagPaths),
                 EntryIngredients.ofItemTag(itemTag(tagPaths))
         );
+        group.setSource(this);
+        registry.add(group);
     }
 
     public static Text convertToTranslatableText(String prefix, Identifier identifier) {
@@ -0,0 +1,616 @@
+package band.kessokuteatime.reicollapsibleentries.core;
+
+import band.kessokuteatime.reicollapsibleentries.jfr.GroupEvaluationEvent;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntIterator;
+import it.unimi.dsi.fastutil.ints.IntList;
+import it.unimi.dsi.fastutil.ints.IntLists;
+import it.unimi.dsi.fastutil.ints.IntSet;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import it.unimi.dsi.fastutil.longs.LongSets;
+import me.shedaniel.rei.api.common.entry.EntryStack;
+import me.shedaniel.rei.api.common.util.EntryStacks;
+import net.minecraft.text.Text;
+import net.minecraft.util.Identifier;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+/**
+ * A collapsible entry group, defined either by a {@link ModPredicate}, by a fixed list of
+ * stacks or as the union of other groups. Once resolved against an {@link EntryIndex}, testing
+ * a stack is a single hash lookup per group.
+ * <br />
+ * Groups form hierarchies through leaves: a leaf is evaluated once, a {@link #refine refined}
+ * leaf only against the members of its parent, and {@link #union unions} of leaves are built
+ * without evaluating any predicate, sharing the membership of their leaves.
+ */
+public class ModGroup implements Predicate<EntryStack<?>> {
+    /**
+     * How many entries are evaluated between two checks of the deadline.
+     */
+    private static final int CHECK_INTERVAL = 64;
+
+    private final Identifier identifier;
+    private final Text name;
+    private @Nullable ModPredicate predicate;
+    private final @Nullable List<? extends EntryStack<?>> stacks;
+    private final @Nullable VariantClassifier classifier;
+    private final @Nullable ModGroup parent;
+    private final @Nullable List<ModGroup> parts;
+    private @Nullable ModEntry source;
+    private @Nullable ModGroup origin;
+    private @Nullable Predicate<EntryStack<?>> accepts;
+
+    // Written on the worker resolving this group and read by test() on the render thread, so the
+    // members are published at once instead of field by field
+    private volatile Resolution resolution = Resolution.EMPTY;
+    private boolean optimized;
+    private long optimizationNanos;
+    private long resolutionNanos;
+    private int evaluated;
+    private volatile boolean resolved;
+    private volatile boolean enabled = true;
+
+    public ModGroup(Identifier identifier, Text name, ModPredicate predicate) {
+        this(identifier, name, predicate, null, null, null, null);
+    }
+
+    public ModGroup(Identifier identifier, Text name, ModPredicate predicate, @Nullable VariantClassifier classifier) {
+        this(identifier, name, predicate, null, classifier, null, null);
+    }
+
+    public ModGroup(Identifier identifier, Text name, List<? extends EntryStack<?>> stacks) {
+        this(identifier, name, null, List.copyOf(stacks), null, null, null);
+    }
+
+    private ModGroup(
+            Identifier identifier, Text name,
+            @Nullable ModPredicate predicate, @Nullable List<? extends EntryStack<?>> stacks,
+            @Nullable VariantClassifier classifier,
+            @Nullable ModGroup parent, @Nullable List<ModGroup> parts
+    ) {
+        this.identifier = identifier;
+        this.name = name;
+        this.predicate = predicate;
+        this.stacks = stacks;
+        this.classifier = classifier;
+        this.parent = parent;
+        this.parts = parts;
+    }
+
+    /**
+     * Creates a leaf, which is only resolved as a part of {@link #union unions} and never
+     * registered by itself.
+     *
+     * @param identifier The identifier of the leaf, for diagnostics.
+     * @param predicate  The predicate of the leaf.
+     * @return The leaf.
+     */
+    public static ModGroup leaf(Identifier identifier, ModPredicate predicate) {
+        return new ModGroup(identifier, Text.literal(identifier.toString()), predicate);
+    }
+
+    /**
+     * Creates a leaf whose predicate is only evaluated against the members of this group, e.g.
+     * <code>iron_helmet</code> among all <code>*_helmet</code>s.
+     *
+     * @param identifier The identifier of the leaf, for diagnostics.
+     * @param predicate  The predicate of the leaf.
+     * @return The leaf.
+     */
+    public ModGroup refine(Identifier identifier, ModPredicate predicate) {
+        return new ModGroup(identifier, Text.literal(identifier.toString()), predicate, null, null, this, null);
+    }
+
+    /**
+     * Creates a group of all members of the given groups, without evaluating any predicate.
+     *
+     * @param identifier The identifier of the group.
+     * @param name       The name of the group.
+     * @param parts      The groups to unite, usually leaves.
+     * @return The group.
+     */
+    public static ModGroup union(Identifier identifier, Text name, List<ModGroup> parts) {
+        return new ModGroup(identifier, name, null, null, null, null, List.copyOf(parts));
+    }
+
+    public Identifier identifier() {
+        return identifier;
+    }
+
+    public Text name() {
+        return name;
+    }
+
+    /**
+     * Gets the family of this group, i.e. its namespace with the first segment of its path,
+     * e.g. <code>create:stone_types</code> for <code>create:stone_types/veridium</code>.
+     *
+     * @return The family's identifier.
+     */
+    public Identifier family() {
+        String path = identifier.getPath();
+        int slash = path.indexOf('/');
+        return slash < 0 ? identifier : Identifier.of(identifier.getNamespace(), path.substring(0, slash));
+    }
+
+    public boolean enabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public @Nullable ModPredicate predicate() {
+        return predicate;
+    }
+
+    /**
+     * Replaces the predicate of this group with its optimized form, once. If the deadline passes
+     * first, the predicate is kept as is and not optimized again.
+     *
+     * @param optimizer The optimizer to use.
+     * @param deadline  The {@link System#nanoTime()} after which to give up.
+     * @return <code>false</code> if the deadline has passed.
+     */
+    public boolean optimize(PredicateOptimizer optimizer, long deadline) {
+        if (predicate == null || optimized) return true;
+
+        long start = System.nanoTime();
+        ModPredicate optimizedPredicate = optimizer.optimize(predicate, deadline);
+        optimizationNanos = System.nanoTime() - start;
+        optimized = true;
+
+        if (optimizedPredicate == null) return false;
+        predicate = optimizedPredicate;
+        return true;
+    }
+
+    /**
+     * @return The nanoseconds spent on optimizing the predicate, including an attempt that gave up.
+     */
+    public long optimizationNanos() {
+        return optimizationNanos;
+    }
+
+    /**
+     * Replaces the sub-predicates of this group that are shared with other groups.
+     *
+     * @param shared The shared sub-predicates of all groups evaluated in the same pass.
+     */
+    void share(SharedPredicates shared) {
+        if (predicate != null) predicate = shared.share(predicate);
+    }
+
+    /**
+     * @return The fixed stacks of this group, or <code>null</code> if it is not defined by stacks.
+     */
+    @Nullable List<? extends EntryStack<?>> stacks() {
+        return stacks;
+    }
+
+    public @Nullable VariantClassifier classifier() {
+        return classifier;
+    }
+
+    /**
+     * @return The {@link ModEntry} whose rules built this group, inherited by its sub-groups, or
+     * <code>null</code> for custom tags, contributed, proposed and manifest groups.
+     */
+    public @Nullable ModEntry source() {
+        return source;
+    }
+
+    void setSource(@Nullable ModEntry source) {
+        this.source = source;
+    }
+
+    /**
+     * @return The group this group was split from, which entries added later are tested against.
+     */
+    @Nullable ModGroup origin() {
+        return origin;
+    }
+
+    private void derive(ModGroup origin, @Nullable Predicate<EntryStack<?>> accepts) {
+        this.origin = origin;
+        this.accepts = accepts;
+        this.source = origin.source;
+    }
+
+    /**
+     * @return The group whose members this group is evaluated against, if any.
+     */
+    public @Nullable ModGroup parent() {
+        return parent;
+    }
+
+    /**
+     * @return The groups this group is the union of, or an empty list if it is not a union.
+     */
+    public List<ModGroup> parts() {
+        return parts != null ? parts : List.of();
+    }
+
+    public List<EntryStack<?>> members() {
+        return resolution.members();
+    }
+
+    /**
+     * @return The hashes of all members. Unions compute them from their parts on each call.
+     */
+    public LongSet hashes() {
+        if (parts == null) return resolution.hashes();
+
+        LongSet union = new LongOpenHashSet();
+        parts.forEach(part -> union.addAll(part.hashes()));
+        return union;
+    }
+
+    public boolean resolved() {
+        return resolved;
+    }
+
+    /**
+     * @return The nanoseconds spent on the last resolution, including one that gave up.
+     */
+    public long resolutionNanos() {
+        return resolutionNanos;
+    }
+
+    /**
+     * @return The count of entries the predicate was tested on during the last resolution.
+     */
+    public int evaluated() {
+        return evaluated;
+    }
+
+    /**
+     * Resolves the members of this group against the given entries.
+     *
+     * @param index The entries to resolve against, only needed for predicate groups.
+     */
+    public void resolve(@Nullable EntryIndex index) {
+        resolve(index, Long.MAX_VALUE);
+    }
+
+    /**
+     * Resolves the members of this group against the given entries, giving up once the deadline
+     * has passed. A group that gave up stays unresolved.
+     *
+     * @param index    The entries to resolve against, only needed for predicate groups.
+     * @param deadline The {@link System#nanoTime()} after which to give up.
+     * @return <code>true</code> if the group got resolved in time.
+     */
+    public boolean resolve(@Nullable EntryIndex index, long deadline) {
+        GroupEvaluationEvent event = new GroupEvaluationEvent();
+        event.begin();
+
+        long start = System.nanoTime();
+        List<EntryStack<?>> members = new ArrayList<>();
+        LongSet hashes = new LongOpenHashSet();
+        IntList positions = new IntArrayList();
+        int evaluated = 0;
+
+        if (parts != null && index != null) {
+            // Members of the parts in index order, shared entries only once
+            BitSet union = new BitSet(index.size());
+            for (ModGroup part : parts) {
+                IntList partPositions = part.positions();
+                for (int i = 0; i < partPositions.size(); i++) {
+                    union.set(partPositions.getInt(i));
+                }
+            }
+            union.stream().forEach(i -> {
+                members.add(index.get(i));
+                positions.add(i);
+            });
+        } else if (predicate != null && index != null && parent != null) {
+            // Only the parent's members can match
+            IntList candidates = parent.positions();
+            for (int i = 0; i < candidates.size(); i++) {
+                int candidate = candidates.getInt(i);
+                if (++evaluated % CHECK_INTERVAL == 0 && System.nanoTime() > deadline) return expire(start);
+                if (predicate.test(index, candidate)) {
+                    members.add(index.get(candidate));
+                    hashes.add(index.hash(candidate));
+                    positions.add(candidate);
+                }
+            }
+        } else if (predicate != null && index != null && predicate.variantInvariant()) {
+            // Decide once per set of variants, then take all of them
+            for (int representative : index.representatives()) {
+                if (++evaluated % CHECK_INTERVAL == 0 && System.nanoTime() > deadline) return expire(start);
+                if (predicate.test(index, representative)) {
+                    IntList variants = index.variants(representative);
+                    for (int i = 0; i < variants.size(); i++) {
+                        members.add(index.get(variants.getInt(i)));
+                        hashes.add(index.hash(variants.getInt(i)));
+                        positions.add(variants.getInt(i));
+                    }
+                }
+            }
+        } else if (predicate != null && index != null) {
+            for (int i = 0; i < index.size(); i++) {
+                if (index.removed(i)) continue;
+                if (++evaluated % CHECK_INTERVAL == 0 && System.nanoTime() > deadline) return expire(start);
+                if (predicate.test(index, i)) {
+                    members.add(index.get(i));
+                    hashes.add(index.hash(i));
+                    positions.add(i);
+                }
+            }
+        } else if (stacks != null) {
+            for (EntryStack<?> stack : stacks) {
+                members.add(stack);
+                hashes.add(EntryStacks.hashExact(stack));
+            }
+        }
+
+        this.resolution = new Resolution(List.copyOf(members), hashes, positions);
+        this.resolutionNanos = System.nanoTime() - start;
+        this.evaluated = evaluated;
+        this.resolved = true;
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.group = identifier.toString();
+            event.family = family().toString();
+            event.entries = evaluated;
+            event.matches = members.size();
+            event.commit();
+        }
+        return true;
+    }
+
+    private boolean expire(long start) {
+        this.resolutionNanos = System.nanoTime() - start;
+        return false;
+    }
+
+    /**
+     * Resolves this group as empty without evaluating anything, for groups that can't match any
+     * entry yet. Entries added later are still tested against it by {@link #update}.
+     */
+    void resolveEmpty() {
+        this.resolution = Resolution.EMPTY;
+        this.resolved = true;
+    }
+
+    /**
+     * Brings the members of this resolved group up to date with entries added to or removed
+     * from the index, evaluating the added entries only. Parents, parts and the group this one
+     * was split from must be updated first.
+     * <br />
+     * Groups of fixed stacks, e.g. tags, manifests and proposals, only lose removed entries, as
+     * they have no predicate to test added entries against. Split groups take the added members
+     * of the group they were split from that belong to them.
+     *
+     * @param index   The updated index.
+     * @param added   The positions of the added entries.
+     * @param removed The positions of the removed entries.
+     * @return <code>true</code> if the members changed.
+     */
+    boolean update(EntryIndex index, IntList added, IntSet removed) {
+        if (!resolved) return false;
+
+        // Cheap enough to build again, as no predicate is involved
+        if (parts != null) return resolve(index, Long.MAX_VALUE);
+
+        Resolution current = resolution;
+        boolean affected = false;
+        for (IntIterator iterator = removed.iterator(); iterator.hasNext() && !affected; ) {
+            affected = current.hashes().contains(index.hash(iterator.nextInt()));
+        }
+
+        IntList matched = new IntArrayList();
+        if (predicate != null) {
+            for (int i = 0; i < added.size(); i++) {
+                int position = added.getInt(i);
+                if (parent != null && !parent.contains(index.hash(position))) continue;
+                if (predicate.test(index, position)) matched.add(position);
+            }
+        } else if (origin != null && accepts != null) {
+            for (int i = 0; i < added.size(); i++) {
+                int position = added.getInt(i);
+                if (origin.contains(index.hash(position)) && accepts.test(index.get(position))) matched.add(position);
+            }
+        }
+
+        if (!affected && matched.isEmpty()) return false;
+
+        List<EntryStack<?>> members = new ArrayList<>(current.members().size() + matched.size());
+        LongSet hashes = new LongOpenHashSet();
+        IntList positions = new IntArrayList(current.positions().size() + matched.size());
+
+        if (affected && stacks != null) {
+            // Fixed stacks aren't the entries of the index, so each removed entry takes away one member of its hash
+            Long2IntOpenHashMap removedCounts = new Long2IntOpenHashMap();
+            for (IntIterator iterator = removed.iterator(); iterator.hasNext(); ) {
+                removedCounts.addTo(index.hash(iterator.nextInt()), 1);
+            }
+            for (EntryStack<?> member : current.members()) {
+                long hash = EntryStacks.hashExact(member);
+                if (removedCounts.get(hash) > 0) {
+                    removedCounts.addTo(hash, -1);
+                } else {
+                    members.add(member);
+                    hashes.add(hash);
+                }
+            }
+        } else if (affected) {
+            // Members line up with their positions, so other entries sharing a hash with a removed one stay
+            for (int i = 0; i < current.positions().size(); i++) {
+                int position = current.positions().getInt(i);
+                if (removed.contains(position)) continue;
+                members.add(current.members().get(i));
+                hashes.add(index.hash(position));
+                positions.add(position);
+            }
+        } else {
+            members.addAll(current.members());
+            hashes.addAll(current.hashes());
+            positions.addAll(current.positions());
+        }
+
+        for (int i = 0; i < matched.size(); i++) {
+            members.add(index.get(matched.getInt(i)));
+            hashes.add(index.hash(matched.getInt(i)));
+            // Groups of fixed stacks have no positions for their other members
+            if (stacks == null) positions.add(matched.getInt(i));
+        }
+
+        this.resolution = new Resolution(List.copyOf(members), hashes, positions);
+        return true;
+    }
+
+    /**
+     * Splits the resolved members of this group into sub-groups using its {@link VariantClassifier}.
+     * Members that are not classified stay in a group under this group's identifier.
+     *
+     * @return The resolved sub-groups, or this group alone if it has no classifier.
+     */
+    public List<ModGroup> subgroups() {
+        if (classifier == null) return List.of(this);
+
+        Map<Identifier, List<EntryStack<?>>> classified = new LinkedHashMap<>();
+        Map<Identifier, Text> names = new LinkedHashMap<>();
+        List<EntryStack<?>> remainder = new ArrayList<>();
+
+        for (EntryStack<?> member : members()) {
+            VariantClassifier.Classification classification = classifier.classify(member);
+            if (classification == null) {
+                remainder.add(member);
+                continue;
+            }
+
+            classified.computeIfAbsent(classification.key(), key -> new ArrayList<>()).add(member);
+            names.putIfAbsent(classification.key(), classification.name() != null
+                    ? classification.name()
+                    : member.asFormattedText());
+        }
+
+        List<ModGroup> subgroups = new ArrayList<>();
+        classified.forEach((key, stacks) -> {
+            ModGroup subgroup = new ModGroup(
+                    identifier.withSuffixedPath("/" + key.getNamespace() + "/" + key.getPath()),
+                    Text.translatable("collection.reicollapsibleentries.subgroup", name, names.get(key)),
+                    stacks
+            );
+            subgroup.derive(this, entryStack -> {
+                VariantClassifier.Classification classification = classifier.classify(entryStack);
+                return classification != null && classification.key().equals(key);
+            });
+            subgroups.add(subgroup);
+        });
+
+        // Kept even if empty, as variants added later may not be classified or of a new kind
+        ModGroup unclassified = new ModGroup(identifier, name, remainder);
+        unclassified.derive(this, entryStack -> {
+            VariantClassifier.Classification classification = classifier.classify(entryStack);
+            return classification == null || !classified.containsKey(classification.key());
+        });
+        subgroups.add(unclassified);
+
+        subgroups.forEach(subgroup -> {
+            subgroup.resolve(null);
+            subgroup.setEnabled(enabled);
+        });
+        return subgroups;
+    }
+
+    /**
+     * @return The indices of the members in the {@link EntryIndex} resolved against, in the
+     * order of {@link #members()}. Empty for groups of fixed stacks.
+     */
+    IntList positions() {
+        return resolution.positions();
+    }
+
+    boolean contains(long hash) {
+        if (parts == null) return resolution.hashes().contains(hash);
+
+        for (ModGroup part : parts) {
+            if (part.contains(hash)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Splits the resolved members of this group into smaller groups, so that expanding one of
+     * them stays fast. No predicate is evaluated again.
+     *
+     * @param maxSize     The maximum count of members of a group.
+     * @param byNamespace Whether to split by the namespaces of members first, then into pages.
+     * @return The resolved smaller groups, or this group alone if it is small enough.
+     */
+    public List<ModGroup> split(int maxSize, boolean byNamespace) {
+        List<EntryStack<?>> members = members();
+        if (members.size() <= maxSize) return List.of(this);
+
+        Map<String, List<EntryStack<?>>> namespaces = new LinkedHashMap<>();
+        for (EntryStack<?> member : members) {
+            namespaces.computeIfAbsent(namespace(member, byNamespace), key -> new ArrayList<>()).add(member);
+        }
+
+        List<ModGroup> split = new ArrayList<>();
+        namespaces.forEach((namespace, stacks) -> {
+            boolean named = namespaces.size() > 1;
+            Identifier base = named ? identifier.withSuffixedPath("/" + namespace) : identifier;
+            Text baseName = named ? Text.translatable("collection.reicollapsibleentries.namespace", name, namespace) : name;
+
+            int pages = (stacks.size() + maxSize - 1) / maxSize;
+            for (int page = 0; page < pages; page++) {
+                ModGroup group = new ModGroup(
+                        pages > 1 ? base.withSuffixedPath("/" + (page + 1)) : base,
+                        pages > 1 ? Text.translatable("collection.reicollapsibleentries.page", baseName, page + 1, pages) : baseName,
+                        stacks.subList(page * maxSize, Math.min(stacks.size(), (page + 1) * maxSize))
+                );
+
+                // Entries added later join the last page of their namespace, which may outgrow the maximum size
+                boolean last = page == pages - 1;
+                group.derive(this, last ? entryStack -> namespace(entryStack, byNamespace).equals(namespace) : null);
+                split.add(group);
+            }
+        });
+
+        // Entries of namespaces that had no member yet join the very last page
+        ModGroup last = split.get(split.size() - 1);
+        Predicate<EntryStack<?>> accepts = Objects.requireNonNull(last.accepts);
+        last.derive(this, accepts.or(entryStack -> !namespaces.containsKey(namespace(entryStack, byNamespace))));
+
+        split.forEach(group -> {
+            group.resolve(null);
+            group.setEnabled(enabled);
+        });
+        return split;
+    }
+
+    private static String namespace(EntryStack<?> entryStack, boolean byNamespace) {
+        return byNamespace && entryStack.getIdentifier() != null ? entryStack.getIdentifier().getNamespace() : "";
+    }
+
+    @Override
+    public boolean test(EntryStack<?> entryStack) {
+        return enabled && contains(EntryStacks.hashExact(entryStack));
+    }
+
+    /**
+     * The members of a resolved group, never changed once published.
+     *
+     * @param positions The indices of the members in the {@link EntryIndex}, see {@link #positions()}.
+     */
+    private record Resolution(List<EntryStack<?>> members, LongSet hashes, IntList positions) {
+        static final Resolution EMPTY = new Resolution(List.of(), LongSets.emptySet(), IntLists.emptyList());
+    }
+}
@@ -0,0 +1,32 @@
+package band.kessokuteatime.reicollapsibleentries.core;
+
+import band.kessokuteatime.reicollapsibleentries.REICollapsibleEntries;
+
+/**
+ * Contributes collapsible entries from other mods or modpacks. Contributors are declared under
+ * the <code>reicollapsibleentries</code> entrypoint of their <code>fabric.mod.json</code>:
+ * <pre>
+ * "entrypoints": {
+ *   "reicollapsibleentries": ["com.example.ExampleContributor"]
+ * }
+ * </pre>
+ * Contributed groups are registered right after the built-in rules and go through the same
+ * optimization, sub-predicate sharing and index resolution. Groups built from
+ * {@link ModPredicate}'s leaves, e.g. {@link ModPredicate#mod(String...)} or
+ * {@link ModPredicate#tag(net.minecraft.registry.tag.TagKey)}, are resolved without scanning
+ * every entry, while wrapped lambdas still have to be tested against each of them.
+ * <br />
+ * Their families can be disabled in the config like the built-in ones.
+ */
+@FunctionalInterface
+public interface ModGroupContributor {
+    String ENTRYPOINT = REICollapsibleEntries.ID;
+
+    /**
+     * Adds groups to the registry, typically through {@link ModPredicateBuilder#of} and
+     * {@link ModPredicateBuilder#register(ModGroupRegistry)}. Called on every reload of REI.
+     *
+     * @param registry The registry to add groups to. It must not be resolved or submitted here.
+     */
+    void contribute(ModGroupRegistry registry);
+}
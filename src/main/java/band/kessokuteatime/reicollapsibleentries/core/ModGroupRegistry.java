@@ -0,0 +1,641 @@
+package band.kessokuteatime.reicollapsibleentries.core;
+
+import band.kessokuteatime.reicollapsibleentries.REICollapsibleEntries;
+import band.kessokuteatime.reicollapsibleentries.jfr.FamilyResolutionEvent;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntIterator;
+import it.unimi.dsi.fastutil.ints.IntList;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.ints.IntSet;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import me.shedaniel.rei.api.client.REIRuntime;
+import me.shedaniel.rei.api.client.overlay.ScreenOverlay;
+import me.shedaniel.rei.api.client.registry.entry.CollapsibleEntryRegistry;
+import me.shedaniel.rei.api.common.entry.EntryStack;
+import me.shedaniel.rei.api.common.util.EntryStacks;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.text.Text;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.Util;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
+
+/**
+ * Collects the collapsible entries of this mod, optimizes and resolves their members once
+ * against the {@link EntryIndex} and hands them over to REI's {@link CollapsibleEntryRegistry}.
+ */
+@SuppressWarnings("UnstableApiUsage")
+public class ModGroupRegistry {
+    /**
+     * Written on REI's reload thread, read on the render thread by commands and config listeners.
+     */
+    private static volatile @Nullable ModGroupRegistry current = null;
+
+    private final CollapsibleEntryRegistry registry;
+    private final PredicateOptimizer optimizer;
+    private final List<ModGroup> groups = new ArrayList<>();
+    private @Nullable EntryIndex index = null;
+    private long budget = Long.MAX_VALUE;
+    private boolean defer = false;
+    private final Set<ModGroup> quarantined = new LinkedHashSet<>();
+    private final Set<ModGroup> postponed = new LinkedHashSet<>();
+    private @Nullable UsageCounts usage = null;
+    private int eager = Integer.MAX_VALUE;
+    private Predicate<ModGroup> postponable = group -> true;
+    private volatile Long2ObjectMap<List<ModGroup>> memberships = new Long2ObjectOpenHashMap<>();
+    private volatile @Nullable List<Runnable> afterBackground = null;
+
+    public ModGroupRegistry(CollapsibleEntryRegistry registry, PredicateOptimizer optimizer) {
+        this.registry = registry;
+        this.optimizer = optimizer;
+    }
+
+    /**
+     * @return The registry submitted to REI by the last reload, if any.
+     */
+    public static Optional<ModGroupRegistry> current() {
+        return Optional.ofNullable(current);
+    }
+
+    /**
+     * Limits the time every single group may take to resolve. Groups exceeding it are quarantined:
+     * they stay empty and are either resolved in the background after {@link #submit()}, or skipped.
+     *
+     * @param budget The time budget of a group.
+     * @param defer  Whether to resolve quarantined groups in the background.
+     */
+    public void budget(Duration budget, boolean defer) {
+        this.budget = budget.isZero() ? Long.MAX_VALUE : budget.toNanos();
+        this.defer = defer;
+    }
+
+    /**
+     * Resolves the most expanded groups first and only the given count of them while
+     * reloading. The others are postponed and resolved in the background after {@link #submit()}.
+     *
+     * Without any recorded expansion, e.g. on the first run, every group is resolved while
+     * reloading.
+     *
+     * @param usage       The expansion counts of the groups.
+     * @param eager       The count of groups to resolve while reloading.
+     * @param postponable Whether a group may be postponed, which groups that are split or
+     *                    proposals are based on before {@link #submit()} may not.
+     */
+    public void prioritize(UsageCounts usage, int eager, Predicate<ModGroup> postponable) {
+        this.usage = usage;
+        this.eager = eager;
+        this.postponable = postponable;
+    }
+
+    public void group(Identifier identifier, Text name, ModPredicate predicate) {
+        add(new ModGroup(identifier, name, predicate));
+    }
+
+    public void group(Identifier identifier, Text name, ModPredicate predicate, VariantClassifier classifier) {
+        add(new ModGroup(identifier, name, predicate, classifier));
+    }
+
+    public void group(Identifier identifier, Text name, List<? extends EntryStack<?>> stacks) {
+        add(new ModGroup(identifier, name, stacks));
+    }
+
+    public void add(ModGroup group) {
+        groups.add(group);
+    }
+
+    public int size() {
+        return groups.size();
+    }
+
+    /**
+     * Lets a contributor add its groups, keeping none of them if it fails partway, so that a
+     * broken contributor cannot leave half of its rules behind.
+     *
+     * @param contributor The contributor to run.
+     * @throws RuntimeException If the contributor fails, after its groups are removed.
+     * @throws LinkageError     If the contributor refers to missing classes, after its groups are removed.
+     */
+    public void contribute(ModGroupContributor contributor) {
+        int before = groups.size();
+        try {
+            contributor.contribute(this);
+        } catch (RuntimeException | LinkageError e) {
+            groups.subList(before, groups.size()).clear();
+            throw e;
+        }
+    }
+
+    public List<ModGroup> groups() {
+        return List.copyOf(groups);
+    }
+
+    public boolean contains(Identifier identifier) {
+        return group(identifier).isPresent();
+    }
+
+    /**
+     * @return The identifiers of the families of all collected groups, sorted.
+     */
+    public Collection<Identifier> families() {
+        TreeSet<Identifier> families = new TreeSet<>();
+        groups.forEach(group -> families.add(group.family()));
+        return families;
+    }
+
+    /**
+     * Resolves the collected groups that can't have any member among the given entries as empty,
+     * so that rules for absent mods or items cost nothing while reloading. They stay dormant
+     * rather than dropped, so that entries added later through {@link #update} are still tested
+     * against them.
+     *
+     * @param index The entries the groups would be resolved against.
+     * @return The dormant groups.
+     */
+    public List<ModGroup> eliminate(EntryIndex index) {
+        DeadRuleEliminator eliminator = DeadRuleEliminator.of(index);
+        List<ModGroup> dead = groups.stream().filter(eliminator::dead).toList();
+        if (dead.isEmpty()) return dead;
+
+        dead.forEach(group -> resolveEmpty(group, eliminator));
+
+        TreeSet<Identifier> families = new TreeSet<>();
+        dead.forEach(group -> families.add(group.family()));
+        REICollapsibleEntries.LOGGER.info("Set aside {} collapsible entries that can't match anything yet, in {}", dead.size(), families);
+        dead.forEach(group -> REICollapsibleEntries.LOGGER.debug("Set aside collapsible entry {}", group.identifier()));
+        return dead;
+    }
+
+    private static void resolveEmpty(ModGroup group, DeadRuleEliminator eliminator) {
+        if (group.resolved()) return;
+        group.resolveEmpty();
+
+        // Only the dead parents and parts, as the others may be shared with live groups
+        if (group.parent() != null && eliminator.dead(group.parent())) resolveEmpty(group.parent(), eliminator);
+        group.parts().stream()
+                .filter(eliminator::dead)
+                .forEach(part -> resolveEmpty(part, eliminator));
+    }
+
+    /**
+     * Optimizes and resolves every enabled group that is not yet resolved against the given
+     * entries. Disabled groups cost nothing until they get enabled.
+     *
+     * @param index The entries to resolve against.
+     */
+    public void resolve(EntryIndex index) {
+        this.index = index;
+        List<ModGroup> pending = groups.stream()
+                .filter(group -> group.enabled() && !group.resolved())
+                .filter(group -> !postponed.contains(group))
+                .toList();
+
+        if (usage != null && !usage.isEmpty()) {
+            Object2IntMap<ModGroup> counts = new Object2IntOpenHashMap<>();
+            pending.forEach(group -> counts.put(group, usage.count(group.identifier())));
+            pending = pending.stream()
+                    .sorted(Comparator.comparingInt(counts::getInt).reversed())
+                    .toList();
+
+            // Only groups that were ever expanded are worth blocking the reload for
+            int eager = (int) pending.stream().limit(this.eager).filter(group -> counts.getInt(group) > 0).count();
+            pending.subList(eager, pending.size()).stream().filter(postponable).forEach(postponed::add);
+            pending = pending.stream().filter(group -> !postponed.contains(group)).toList();
+        }
+
+        List<ModGroup> unresolved = share(pending, true);
+        pending.forEach(this::resolve);
+        FamilyResolutionEvent.report(unresolved, false);
+    }
+
+    /**
+     * Optimizes the given groups with their parents and parts, then deduplicates the
+     * sub-predicates they have in common.
+     *
+     * @param bounded Whether optimizing counts toward the time budget of each group.
+     * @return The given groups with their parents and parts that are not resolved yet.
+     */
+    private List<ModGroup> share(List<ModGroup> pending, boolean bounded) {
+        Set<ModGroup> all = Collections.newSetFromMap(new IdentityHashMap<>());
+        pending.forEach(group -> collect(group, all));
+
+        List<ModGroup> unresolved = all.stream().filter(group -> !group.resolved()).toList();
+        unresolved.forEach(group -> {
+            if (!group.optimize(optimizer, bounded ? deadline(group) : Long.MAX_VALUE)) quarantine(group);
+        });
+
+        SharedPredicates shared = SharedPredicates.of(unresolved.stream()
+                .map(ModGroup::predicate)
+                .filter(Objects::nonNull)
+                .toList());
+        unresolved.forEach(group -> group.share(shared));
+
+        REICollapsibleEntries.LOGGER.debug("Shared {} sub-predicates between {} collapsible entries", shared.size(), unresolved.size());
+        return unresolved;
+    }
+
+    private static void collect(ModGroup group, Set<ModGroup> all) {
+        if (!all.add(group)) return;
+        if (group.parent() != null) collect(group.parent(), all);
+        group.parts().forEach(part -> collect(part, all));
+    }
+
+    /**
+     * Resolves every group that is not yet resolved, including disabled and quarantined ones,
+     * without any time budget. Must not run while groups are resolved in the background, see
+     * {@link #whenResolved}.
+     */
+    public void resolveAll() {
+        if (index == null) return;
+        List<ModGroup> unresolved = groups.stream()
+                .filter(group -> !group.resolved())
+                .toList();
+        if (unresolved.isEmpty()) return;
+
+        unresolved.forEach(this::resolveUnbounded);
+        quarantined.clear();
+        if (current == this) indexMemberships();
+    }
+
+    public Optional<EntryIndex> index() {
+        return Optional.ofNullable(index);
+    }
+
+    private boolean resolve(ModGroup group) {
+        if (quarantined.contains(group)) return false;
+
+        // Leaves are shared between groups, so each of them is only resolved once
+        ModGroup parent = group.parent();
+        if (parent != null && !parent.resolved() && !resolve(parent)) {
+            quarantined.add(group);
+            return false;
+        }
+        for (ModGroup part : group.parts()) {
+            if (!part.resolved() && !resolve(part)) {
+                quarantined.add(group);
+                return false;
+            }
+        }
+
+        // Optimizing samples the predicate, which counts toward the budget as well
+        long deadline = deadline(group);
+        if (group.optimize(optimizer, deadline) && group.resolve(index, deadline))
+            return true;
+
+        quarantine(group);
+        return false;
+    }
+
+    /**
+     * @return The {@link System#nanoTime()} after which the group exceeds its budget, minus the
+     * time already spent on optimizing it.
+     */
+    private long deadline(ModGroup group) {
+        return budget == Long.MAX_VALUE ? Long.MAX_VALUE : System.nanoTime() + budget - group.optimizationNanos();
+    }
+
+    private void quarantine(ModGroup group) {
+        REICollapsibleEntries.LOGGER.warn("Quarantined collapsible entry {} after {}ms, exceeding its budget of {}ms",
+                group.identifier(), (group.optimizationNanos() + group.resolutionNanos()) / 1_000_000, budget / 1_000_000);
+        quarantined.add(group);
+    }
+
+    private void resolveUnbounded(ModGroup group) {
+        ModGroup parent = group.parent();
+        if (parent != null && !parent.resolved()) resolveUnbounded(parent);
+        group.parts().stream()
+                .filter(part -> !part.resolved())
+                .forEach(this::resolveUnbounded);
+        if (!group.resolved()) group.resolve(index);
+    }
+
+    /**
+     * @return The collected groups that exceeded their time budget and are not resolved yet.
+     */
+    public List<ModGroup> quarantined() {
+        return groups.stream().filter(quarantined::contains).toList();
+    }
+
+    /**
+     * Enables or disables groups by the mods whose rules built them and by their families. Newly
+     * enabled groups are resolved on the spot, or once the background pass is done as they may
+     * share leaves with the groups it resolves. Other groups are left untouched.
+     * <br />
+     * Groups enabled here are never split, as REI only takes groups while reloading. Groups that
+     * are split must thus be resolved and split before {@link #submit()}, even if disabled.
+     *
+     * @param disabledMods     The mod ids whose groups are disabled, matched against the
+     *                         {@link ModGroup#source() source} of a group, or its namespace if it
+     *                         has none.
+     * @param disabledFamilies The families whose groups are disabled.
+     * @return The count of groups whose state changed.
+     */
+    public int toggle(Collection<String> disabledMods, Collection<String> disabledFamilies) {
+        List<ModGroup> enabledGroups = new ArrayList<>();
+        int changed = 0;
+        for (ModGroup group : groups) {
+            String modid = group.source() != null ? group.source().modid() : group.identifier().getNamespace();
+            boolean enabled = !disabledMods.contains(modid)
+                    && !disabledFamilies.contains(group.family().toString());
+            if (enabled == group.enabled()) continue;
+
+            if (enabled && !group.resolved()) enabledGroups.add(group);
+            group.setEnabled(enabled);
+            changed++;
+        }
+
+        if (!enabledGroups.isEmpty() && index != null) whenResolved(() -> resolveEnabled(enabledGroups));
+        return changed;
+    }
+
+    private void resolveEnabled(List<ModGroup> enabledGroups) {
+        int resolved = 0;
+        for (ModGroup group : enabledGroups) {
+            if (group.enabled() && !group.resolved() && !postponed.contains(group) && resolve(group)) resolved++;
+        }
+        if (resolved == 0 || current != this) return;
+
+        indexMemberships();
+        REIRuntime.getInstance().getOverlay().ifPresent(ScreenOverlay::queueReloadSearch);
+    }
+
+    /**
+     * Runs a task once the groups postponed or quarantined on {@link #submit()} are resolved in
+     * the background, or right away if there are none. Tasks resolving or updating groups must
+     * wait, as they would resolve the leaves shared with those groups concurrently.
+     * Must be called on the render thread.
+     *
+     * @param task The task to run on the render thread.
+     */
+    public void whenResolved(Runnable task) {
+        List<Runnable> afterBackground = this.afterBackground;
+        if (afterBackground != null) afterBackground.add(task);
+        else task.run();
+    }
+
+    /**
+     * Gets the groups an entry is a member of, disabled ones included, from the reverse index
+     * built on {@link #submit()}.
+     *
+     * @param entryStack The entry to look up.
+     * @return The resolved groups containing the entry.
+     */
+    public List<ModGroup> groupsOf(EntryStack<?> entryStack) {
+        return memberships.getOrDefault(EntryStacks.hashExact(entryStack), List.of());
+    }
+
+    public Optional<ModGroup> group(Identifier identifier) {
+        return groups.stream().filter(group -> group.identifier().equals(identifier)).findFirst();
+    }
+
+    private void indexMemberships() {
+        Long2ObjectMap<List<ModGroup>> memberships = new Long2ObjectOpenHashMap<>();
+        for (ModGroup group : groups) {
+            if (!group.resolved()) continue;
+            LongIterator hashes = group.hashes().iterator();
+            while (hashes.hasNext()) {
+                long hash = hashes.nextLong();
+                List<ModGroup> containing = memberships.get(hash);
+                if (containing == null) {
+                    containing = new ArrayList<>(1);
+                    memberships.put(hash, containing);
+                }
+                containing.add(group);
+            }
+        }
+        // Callers on other threads only ever see unmodifiable lists
+        memberships.replaceAll((hash, containing) -> List.copyOf(containing));
+        this.memberships = memberships;
+    }
+
+    /**
+     * @return The hashes of all entries that are members of at least one group.
+     */
+    public LongSet covered() {
+        LongSet covered = new LongOpenHashSet();
+        groups.stream()
+                .filter(ModGroup::enabled)
+                .forEach(group -> covered.addAll(group.hashes()));
+        return covered;
+    }
+
+    /**
+     * Replaces every resolved group that has a {@link VariantClassifier} with its sub-groups.
+     */
+    public void splitVariants() {
+        List<ModGroup> split = new ArrayList<>();
+        groups.forEach(group -> split.addAll(group.resolved() ? group.subgroups() : List.of(group)));
+        groups.clear();
+        groups.addAll(split);
+    }
+
+    /**
+     * Replaces every resolved group that has more members than the given size with smaller groups.
+     *
+     * @param maxSize     The maximum count of members of a group.
+     * @param byNamespace Whether to split by the namespaces of members first, then into pages.
+     */
+    public void splitLarge(int maxSize, boolean byNamespace) {
+        List<ModGroup> split = new ArrayList<>();
+        groups.forEach(group -> split.addAll(group.resolved() ? group.split(maxSize, byNamespace) : List.of(group)));
+        groups.clear();
+        groups.addAll(split);
+    }
+
+    /**
+     * Updates the resolved groups with entries added to or removed from REI's entry list after
+     * they were resolved. Only the added entries are evaluated, so the cost follows the size of
+     * the change instead of the size of the entry list, plus copying the members of each group
+     * that changed. Unresolved groups are resolved against the updated entries later on.
+     *
+     * @param added   The added entries.
+     * @param removed The removed entries.
+     */
+    public void update(List<? extends EntryStack<?>> added, List<? extends EntryStack<?>> removed) {
+        if (index == null) return;
+
+        // Groups being resolved in the background would miss the change, so it waits for them
+        if (afterBackground != null) {
+            whenResolved(() -> update(added, removed));
+            return;
+        }
+
+        IntSet removedPositions = new IntOpenHashSet();
+        for (EntryStack<?> entryStack : removed) {
+            int position = index.position(entryStack);
+            if (position >= 0) removedPositions.add(position);
+        }
+        if (added.isEmpty() && removedPositions.isEmpty()) return;
+
+        int size = index.size();
+        index.update(added, removedPositions);
+        IntList addedPositions = new IntArrayList(added.size());
+        for (int i = size; i < index.size(); i++) {
+            addedPositions.add(i);
+        }
+
+        Set<ModGroup> done = Collections.newSetFromMap(new IdentityHashMap<>());
+        Set<ModGroup> updated = Collections.newSetFromMap(new IdentityHashMap<>());
+        groups.forEach(group -> update(group, index, addedPositions, removedPositions, done, updated));
+
+        Set<ModGroup> changed = Collections.newSetFromMap(new IdentityHashMap<>());
+        groups.stream().filter(updated::contains).forEach(changed::add);
+
+        REICollapsibleEntries.LOGGER.debug("Updated {} collapsible entries with {} added and {} removed entries",
+                changed.size(), addedPositions.size(), removedPositions.size());
+        if (changed.isEmpty() || current != this) return;
+
+        LongSet touched = new LongOpenHashSet();
+        for (int i = 0; i < addedPositions.size(); i++) {
+            touched.add(index.hash(addedPositions.getInt(i)));
+        }
+        for (IntIterator iterator = removedPositions.iterator(); iterator.hasNext(); ) {
+            touched.add(index.hash(iterator.nextInt()));
+        }
+        updateMemberships(changed, touched);
+        REIRuntime.getInstance().getOverlay().ifPresent(ScreenOverlay::queueReloadSearch);
+    }
+
+    /**
+     * Updates the membership index for the added and removed entries only, as the groups of
+     * every other entry are left as they were.
+     */
+    private void updateMemberships(Set<ModGroup> changed, LongSet touched) {
+        LongIterator hashes = touched.iterator();
+        while (hashes.hasNext()) {
+            long hash = hashes.nextLong();
+            List<ModGroup> containing = new ArrayList<>();
+            for (ModGroup group : memberships.getOrDefault(hash, List.of())) {
+                if (!changed.contains(group)) containing.add(group);
+            }
+            for (ModGroup group : changed) {
+                if (group.contains(hash)) containing.add(group);
+            }
+
+            if (containing.isEmpty()) memberships.remove(hash);
+            else memberships.put(hash, List.copyOf(containing));
+        }
+    }
+
+    private static void update(ModGroup group, EntryIndex index, IntList added, IntSet removed, Set<ModGroup> done, Set<ModGroup> updated) {
+        if (!done.add(group)) return;
+
+        // Parents, parts and origins first, as their members decide those of this group
+        if (group.parent() != null) update(group.parent(), index, added, removed, done, updated);
+        group.parts().forEach(part -> update(part, index, added, removed, done, updated));
+        if (group.origin() != null) update(group.origin(), index, added, removed, done, updated);
+
+        // Unions are built again from their parts, which is only needed if one of them changed
+        if (!group.parts().isEmpty() && group.parts().stream().noneMatch(updated::contains)) return;
+        if (group.update(index, added, removed)) updated.add(group);
+    }
+
+    /**
+     * Registers every collected group to REI, including disabled ones so that they can be
+     * enabled later without reloading. Enabled groups should be resolved first.
+     */
+    public void submit() {
+        submit(() -> {
+        });
+    }
+
+    /**
+     * Registers every collected group to REI like {@link #submit()}, then runs a task once the
+     * groups postponed or quarantined are resolved in the background.
+     *
+     * @param whenResolved The task to run on the render thread, right away if no group is
+     *                     resolved in the background.
+     */
+    public void submit(Runnable whenResolved) {
+        groups.forEach(group -> registry.group(group.identifier(), group.name(), group));
+        current = this;
+        indexMemberships();
+
+        List<ModGroup> deferred = new ArrayList<>(postponed);
+        if (defer) deferred.addAll(quarantined());
+        if (deferred.isEmpty() || index == null) {
+            MinecraftClient.getInstance().execute(whenResolved);
+            return;
+        }
+
+        // Postponed groups share sub-predicates among themselves, on the thread resolving them
+        List<ModGroup> shared = List.copyOf(postponed);
+        afterBackground = new ArrayList<>(List.of(whenResolved));
+        CompletableFuture.runAsync(() -> {
+                    if (!shared.isEmpty()) share(shared, false);
+
+                    Set<ModGroup> all = Collections.newSetFromMap(new IdentityHashMap<>());
+                    deferred.forEach(group -> collect(group, all));
+                    List<ModGroup> unresolved = all.stream().filter(group -> !group.resolved()).toList();
+
+                    deferred.forEach(this::resolveUnbounded);
+                    FamilyResolutionEvent.report(unresolved, true);
+                }, Util.getMainWorkerExecutor())
+                .thenRunAsync(() -> {
+                    if (defer) quarantined.clear();
+                    postponed.clear();
+                    List<Runnable> updates = afterBackground;
+                    afterBackground = null;
+                    if (current != this) return;
+
+                    indexMemberships();
+                    if (updates != null) updates.forEach(Runnable::run);
+
+                    REICollapsibleEntries.LOGGER.info("Resolved {} postponed or quarantined collapsible entries in the background", deferred.size());
+                    REIRuntime.getInstance().getOverlay().ifPresent(ScreenOverlay::queueReloadSearch);
+                }, MinecraftClient.getInstance())
+                .exceptionally(throwable -> {
+                    MinecraftClient.getInstance().execute(() -> recover(deferred, throwable));
+                    return null;
+                });
+    }
+
+    /**
+     * Resolves the deferred groups on the render thread after the background pass failed, so that
+     * the tasks waiting for it still run and later toggles and updates aren't queued forever.
+     * Groups failing again are left unresolved, matching nothing.
+     */
+    private void recover(List<ModGroup> deferred, Throwable throwable) {
+        REICollapsibleEntries.LOGGER.error("Failed to resolve postponed or quarantined collapsible entries in the background!", throwable);
+        List<Runnable> updates = afterBackground;
+        afterBackground = null;
+        // The background pass is done already if the waiting tasks failed, which are not run twice
+        if (updates == null) return;
+
+        if (defer) quarantined.clear();
+        postponed.clear();
+        if (current != this) return;
+
+        for (ModGroup group : deferred) {
+            try {
+                resolveUnbounded(group);
+            } catch (RuntimeException e) {
+                REICollapsibleEntries.LOGGER.error("Failed to resolve collapsible entry {}!", group.identifier(), e);
+            }
+        }
+        indexMemberships();
+        updates.forEach(Runnable::run);
+
+        REICollapsibleEntries.LOGGER.info("Resolved {} postponed or quarantined collapsible entries after the background pass failed", deferred.size());
+        REIRuntime.getInstance().getOverlay().ifPresent(ScreenOverlay::queueReloadSearch);
+    }
+}
@@ -7,150 +7,244 @@ import net.minecraft.util.DyeColor;
 import net.minecraft.util.Identifier;
 
 import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.function.Predicate;
 
+/**
+ * A predicate over {@link EntryStack}s that keeps its structure, so that compositions
+ * built with {@link #and(Predicate)}, {@link #or(Predicate)} and {@link #negate()} can
+ * be inspected and rearranged before being handed to REI.
+ * <br />
+ * Predicates are structurally comparable: two predicates built the same way from the same
+ * arguments are equal, except for wrapped opaque predicates, which are only equal to themselves.
+ */
 public interface ModPredicate extends Predicate<EntryStack<?>> {
-    static Predicate<EntryStack<?>> pass() {
-        return entryStack -> true;
+    /**
+     * Gets the direct operands of this predicate.
+     *
+     * @return The operands, or an empty list if this predicate is a leaf.
+     */
+    default List<ModPredicate> operands() {
+        return List.of();
     }
 
-    static Predicate<EntryStack<?>> fail() {
-        return entryStack -> false;
+    /**
+     * @return A short description of this node alone, without its operands.
+     */
+    default String label() {
+        return toString();
+    }
+
+    /**
+     * Checks whether this predicate gives the same result for all variants of an entry, i.e.
+     * it only depends on types, identifiers and tags but not on data components.
+     *
+     * @return <code>true</code> if this predicate can be evaluated once per set of variants.
+     */
+    default boolean variantInvariant() {
+        return !operands().isEmpty() && operands().stream().allMatch(ModPredicate::variantInvariant);
+    }
+
+    /**
+     * Tests the entry at the given position of an index. Sub-predicates shared between groups
+     * remember their results per position, so that they are evaluated once per entry.
+     *
+     * @param index    The index holding the entry.
+     * @param position The position of the entry.
+     * @return The result of this predicate.
+     */
+    default boolean test(EntryIndex index, int position) {
+        return test(index.get(position));
+    }
+
+    @Override
+    default ModPredicate and(Predicate<? super EntryStack<?>> other) {
+        return JunctionPredicate.of(true, this, of(other));
+    }
+
+    @Override
+    default ModPredicate or(Predicate<? super EntryStack<?>> other) {
+        return JunctionPredicate.of(false, this, of(other));
+    }
+
+    @Override
+    default ModPredicate negate() {
+        return new NegatedPredicate(this);
+    }
+
+    /**
+     * Wraps an arbitrary predicate. Predicates that are already {@link ModPredicate}s
+     * are returned as is, others become opaque leaves.
+     *
+     * @param predicate The predicate to wrap.
+     * @return The wrapped predicate.
+     */
+    @SuppressWarnings("unchecked")
+    static ModPredicate of(Predicate<? super EntryStack<?>> predicate) {
+        if (predicate instanceof ModPredicate modPredicate)
+            return modPredicate;
+        return new LeafPredicate(LeafPredicate.Kind.OPAQUE, predicate, (Predicate<EntryStack<?>>) predicate);
+    }
+
+    static ModPredicate pass() {
+        return LeafPredicate.PASS;
+    }
+
+    static ModPredicate fail() {
+        return LeafPredicate.FAIL;
     }
 
 
 
-    static Predicate<EntryStack<?>> mod(ModEntry... modEntries) {
-        return entryStack -> Arrays.stream(modEntries).anyMatch(modEntry -> modEntry.contains(entryStack.getIdentifier()));
+    static ModPredicate mod(ModEntry... modEntries) {
+        return mod(Arrays.stream(modEntries).map(ModEntry::modid).toArray(String[]::new));
     }
 
-    static Predicate<EntryStack<?>> mod(String... namespaces) {
-        return entryStack -> entryStack.getIdentifier() != null && Arrays.asList(namespaces).contains(entryStack.getIdentifier().getNamespace());
+    static ModPredicate mod(String... namespaces) {
+        Set<String> set = Set.copyOf(Arrays.asList(namespaces));
+        return new LeafPredicate(LeafPredicate.Kind.MOD, set, entryStack ->
+                entryStack.getIdentifier() != null && set.contains(entryStack.getIdentifier().getNamespace()));
     }
 
-    static Predicate<EntryStack<?>> mod(Identifier... namespaces) {
+    static ModPredicate mod(Identifier... namespaces) {
         return mod(Arrays.stream(namespaces).map(Identifier::getNamespace).toArray(String[]::new));
     }
 
 
 
-    static Predicate<EntryStack<?>> id(Identifier identifier) {
-        return entryStack -> entryStack.getIdentifier() != null && entryStack.getIdentifier().equals(identifier);
+    static ModPredicate id(Identifier identifier) {
+        return new LeafPredicate(LeafPredicate.Kind.ID, identifier, entryStack ->
+                entryStack.getIdentifier() != null && entryStack.getIdentifier().equals(identifier));
     }
 
-    static Predicate<EntryStack<?>> path(String... paths) {
-        return entryStack -> entryStack.getIdentifier() != null && entryStack.getIdentifier().getPath().equals(ModEntry.joinAll(paths));
+    static ModPredicate path(String... paths) {
+        String path = ModEntry.joinAll(paths);
+        return new LeafPredicate(LeafPredicate.Kind.PATH, path, entryStack ->
+                entryStack.getIdentifier() != null && entryStack.getIdentifier().getPath().equals(path));
     }
 
 
 
-    static Predicate<EntryStack<?>> pathContains(String... paths) {
-        return entryStack -> entryStack.getIdentifier() != null
-                && entryStack.getIdentifier().getPath().contains(ModEntry.joinAll(paths));
+    static ModPredicate pathContains(String... paths) {
+        String path = ModEntry.joinAll(paths);
+        return new LeafPredicate(LeafPredicate.Kind.PATH_CONTAINS, path, entryStack ->
+                entryStack.getIdentifier() != null && entryStack.getIdentifier().getPath().contains(path));
     }
 
-    static Predicate<EntryStack<?>> pathContains(Identifier path) {
+    static ModPredicate pathContains(Identifier path) {
         return pathContains(path.getPath());
     }
 
-    static Predicate<EntryStack<?>> idContains(Identifier identifier) {
+    static ModPredicate idContains(Identifier identifier) {
         return mod(identifier).and(pathContains(identifier));
     }
 
-    static Predicate<EntryStack<?>> pathContainsOnly(String... paths) {
+    static ModPredicate pathContainsOnly(String... paths) {
         return pathContains(paths).and(path(paths).negate());
     }
 
-    static Predicate<EntryStack<?>> pathContainsOnly(Identifier path) {
+    static ModPredicate pathContainsOnly(Identifier path) {
         return pathContainsOnly(path.getPath());
     }
 
-    static Predicate<EntryStack<?>> idContainsOnly(Identifier identifier) {
+    static ModPredicate idContainsOnly(Identifier identifier) {
         return mod(identifier).and(pathContainsOnly(identifier));
     }
 
 
 
-    static Predicate<EntryStack<?>> pathLeading(String... paths) {
-        return entryStack -> entryStack.getIdentifier() != null
-                && entryStack.getIdentifier().getPath().startsWith(ModEntry.joinAll(paths));
+    static ModPredicate pathLeading(String... paths) {
+        String path = ModEntry.joinAll(paths);
+        return new LeafPredicate(LeafPredicate.Kind.PATH_LEADING, path, entryStack ->
+                entryStack.getIdentifier() != null && entryStack.getIdentifier().getPath().startsWith(path));
     }
 
-    static Predicate<EntryStack<?>> pathLeading(Identifier path) {
+    static ModPredicate pathLeading(Identifier path) {
         return pathLeading(path.getPath());
     }
 
-    static Predicate<EntryStack<?>> idLeading(Identifier identifier) {
+    static ModPredicate idLeading(Identifier identifier) {
         return mod(identifier).and(pathLeading(identifier));
     }
 
-    static Predicate<EntryStack<?>> pathLeadingOnly(String... paths) {
+    static ModPredicate pathLeadingOnly(String... paths) {
         return pathLeading(paths).and(path(paths).negate());
     }
 
-    static Predicate<EntryStack<?>> pathLeadingOnly(Identifier path) {
+    static ModPredicate pathLeadingOnly(Identifier path) {
         return pathLeadingOnly(path.getPath());
     }
 
-    static Predicate<EntryStack<?>> idLeadingOnly(Identifier identifier) {
+    static ModPredicate idLeadingOnly(Identifier identifier) {
         return mod(identifier).and(pathLeadingOnly(identifier));
     }
 
 
 
-    static Predicate<EntryStack<?>> pathTrailing(String... paths) {
-        return entryStack -> entryStack.getIdentifier() != null
-                && entryStack.getIdentifier().getPath().endsWith(ModEntry.joinAll(paths));
+    static ModPredicate pathTrailing(String... paths) {
+        String path = ModEntry.joinAll(paths);
+        return new LeafPredicate(LeafPredicate.Kind.PATH_TRAILING, path, entryStack ->
+                entryStack.getIdentifier() != null && entryStack.getIdentifier().getPath().endsWith(path));
     }
 
-    static Predicate<EntryStack<?>> pathTrailing(Identifier path) {
+    static ModPredicate pathTrailing(Identifier path) {
         return pathTrailing(path.getPath());
     }
 
-    static Predicate<EntryStack<?>> idTrailing(Identifier identifier) {
+    static ModPredicate idTrailing(Identifier identifier) {
         return mod(identifier).and(pathTrailing(identifier));
     }
 
-    static Predicate<EntryStack<?>> pathTrailingOnly(String... paths) {
+    static ModPredicate pathTrailingOnly(String... paths) {
         return pathTrailing(paths).and(path(paths).negate());
     }
 
-    static Predicate<EntryStack<?>> pathTrailingOnly(Identifier path) {
+    static ModPredicate pathTrailingOnly(Identifier path) {
         return pathTrailingOnly(path.getPath());
     }
 
-    static Predicate<EntryStack<?>> idTrailingOnly(Identifier identifier) {
+    static ModPredicate idTrailingOnly(Identifier identifier) {
         return mod(identifier).and(pathTrailingOnly(identifier));
     }
 
 
 
-    static Predicate<EntryStack<?>> tag(String... paths) {
-        return entryStack -> entryStack.getTagsFor().anyMatch(tag -> tag.id().getPath().equals(ModEntry.joinAll(paths)));
+    static ModPredicate tag(String... paths) {
+        String path = ModEntry.joinAll(paths);
+        return new LeafPredicate(LeafPredicate.Kind.TAG_PATH, path, entryStack ->
+                entryStack.getTagsFor().anyMatch(tag -> tag.id().getPath().equals(path)));
     }
 
-    static Predicate<EntryStack<?>> tag(TagKey<?> tagKey) {
-        return entryStack -> entryStack.getTagsFor().anyMatch(tagKey::equals);
+    static ModPredicate tag(TagKey<?> tagKey) {
+        return new LeafPredicate(LeafPredicate.Kind.TAG, tagKey, entryStack ->
+                entryStack.getTagsFor().anyMatch(tagKey::equals));
     }
 
 
 
-    static Predicate<EntryStack<?>> type(EntryType<?> entryType) {
-        return entryStack -> entryStack.getType().equals(entryType);
+    static ModPredicate type(EntryType<?> entryType) {
+        return new LeafPredicate(LeafPredicate.Kind.TYPE, entryType, entryStack ->
+                entryStack.getType().equals(entryType));
     }
 
 
 
-    static Predicate<EntryStack<?>> iterate(
+    static ModPredicate iterate(
             Function<String, Predicate<EntryStack<?>>> pathPredication,
             String... array
     ) {
-        return entryStack -> Arrays.stream(array).anyMatch(path -> pathPredication.apply(path).test(entryStack));
+        return JunctionPredicate.of(false, Arrays.stream(array)
+                .map(pathPredication)
+                .map(ModPredicate::of)
+                .toArray(ModPredicate[]::new));
     }
 
-    static Predicate<EntryStack<?>> dyeVariants(Function<DyeColor, Predicate<EntryStack<?>>> dyeColorPredication) {
-        return entryStack -> Arrays.stream(DyeColor.values())
-                .anyMatch(dyeColor -> dyeColorPredication.apply(dyeColor).test(entryStack));
+    static ModPredicate dyeVariants(Function<DyeColor, Predicate<EntryStack<?>>> dyeColorPredication) {
+        return JunctionPredicate.of(false, Arrays.stream(DyeColor.values())
+                .map(dyeColorPredication)
+                .map(ModPredicate::of)
+                .toArray(ModPredicate[]::new));
     }
 }
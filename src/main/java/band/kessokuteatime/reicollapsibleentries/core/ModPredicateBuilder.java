@@ -1,29 +1,77 @@
 package band.kessokuteatime.reicollapsibleentries.core;
 
-import me.shedaniel.rei.api.client.registry.entry.CollapsibleEntryRegistry;
 import me.shedaniel.rei.api.common.entry.EntryStack;
 import net.minecraft.text.Text;
 import net.minecraft.util.Identifier;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.List;
 import java.util.function.Predicate;
 
 public class ModPredicateBuilder {
     private final Identifier identifier;
     private final Text name;
-    private final Predicate<EntryStack<?>> predicate;
+    private final ModPredicate predicate;
+    private final @Nullable VariantClassifier classifier;
+    private final @Nullable List<ModGroup> parts;
+    private final @Nullable ModEntry source;
 
-    ModPredicateBuilder(Identifier identifier, Text name, Predicate<EntryStack<?>> predicate) {
+    ModPredicateBuilder(Identifier identifier, Text name, ModPredicate predicate, @Nullable VariantClassifier classifier, @Nullable List<ModGroup> parts, @Nullable ModEntry source) {
         this.identifier = identifier;
         this.name = name;
         this.predicate = predicate;
+        this.classifier = classifier;
+        this.parts = parts;
+        this.source = source;
+    }
+
+    /**
+     * Starts a group outside of {@link ModEntry}'s namespaces, e.g. for a {@link ModGroupContributor}.
+     *
+     * @param identifier The group's identifier.
+     * @param name       The group's name.
+     * @return The builder, matching nothing until a predicate is given.
+     */
+    public static ModPredicateBuilder of(Identifier identifier, Text name) {
+        return new ModPredicateBuilder(identifier, name, ModPredicate.fail(), null, null, null);
+    }
+
+    static ModPredicateBuilder of(ModEntry source, Identifier identifier, Text name) {
+        return new ModPredicateBuilder(identifier, name, ModPredicate.fail(), null, null, source);
     }
 
     public ModPredicateBuilder name(Text name) {
-        return new ModPredicateBuilder(identifier, name, predicate);
+        return new ModPredicateBuilder(identifier, name, predicate, classifier, parts, source);
     }
 
     public ModPredicateBuilder predicate(Predicate<EntryStack<?>> predicate) {
-        return new ModPredicateBuilder(identifier, name, predicate);
+        return new ModPredicateBuilder(identifier, name, ModPredicate.of(predicate), classifier, null, source);
+    }
+
+    /**
+     * Builds the group as the union of leaves instead of from a predicate, so that leaves shared
+     * with other groups are only resolved once.
+     *
+     * @param parts The leaves to unite, see {@link ModGroup#leaf} and {@link ModGroup#refine}.
+     * @return The builder.
+     */
+    public ModPredicateBuilder union(List<ModGroup> parts) {
+        return new ModPredicateBuilder(identifier, name, predicate, null, List.copyOf(parts), source);
+    }
+
+    public ModPredicateBuilder union(ModGroup... parts) {
+        return union(List.of(parts));
+    }
+
+    /**
+     * Allows the group to be split into sub-groups of component variants, e.g. potions by
+     * their potion.
+     *
+     * @param classifier The classifier sorting members into sub-groups.
+     * @return The builder.
+     */
+    public ModPredicateBuilder subgroups(VariantClassifier classifier) {
+        return new ModPredicateBuilder(identifier, name, predicate, classifier, parts, source);
     }
 
     public ModPredicateBuilder negate() {
@@ -34,11 +82,17 @@ public class ModPredicateBuilder {
         return predicate.test(entryStack);
     }
 
-    public void register(CollapsibleEntryRegistry registry) {
-        registry.group(
-                identifier,
-                name,
-                predicate
-        );
+    public void register(ModGroupRegistry registry) {
+        ModGroup group;
+        if (parts != null) {
+            group = ModGroup.union(identifier, name, parts);
+        } else if (classifier != null) {
+            group = new ModGroup(identifier, name, predicate, classifier);
+        } else {
+            group = new ModGroup(identifier, name, predicate);
+        }
+
+        group.setSource(source);
+        registry.add(group);
     }
 }
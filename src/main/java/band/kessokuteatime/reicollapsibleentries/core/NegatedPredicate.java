@@ -0,0 +1,57 @@
+package band.kessokuteatime.reicollapsibleentries.core;
+
+import me.shedaniel.rei.api.common.entry.EntryStack;
+
+import java.util.List;
+
+class NegatedPredicate implements ModPredicate {
+    private final ModPredicate operand;
+
+    NegatedPredicate(ModPredicate operand) {
+        this.operand = operand;
+    }
+
+    ModPredicate operand() {
+        return operand;
+    }
+
+    @Override
+    public List<ModPredicate> operands() {
+        return List.of(operand);
+    }
+
+    @Override
+    public ModPredicate negate() {
+        return operand;
+    }
+
+    @Override
+    public boolean test(EntryStack<?> entryStack) {
+        return !operand.test(entryStack);
+    }
+
+    @Override
+    public boolean test(EntryIndex index, int position) {
+        return !operand.test(index, position);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof NegatedPredicate negated && operand.equals(negated.operand);
+    }
+
+    @Override
+    public int hashCode() {
+        return ~operand.hashCode();
+    }
+
+    @Override
+    public String label() {
+        return "not";
+    }
+
+    @Override
+    public String toString() {
+        return "not(" + operand + ")";
+    }
+}
@@ -0,0 +1,43 @@
+package band.kessokuteatime.reicollapsibleentries.core;
+
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+/**
+ * Creates files named after the current time for snapshots and exports, so that they sort by
+ * creation and never overwrite each other.
+ */
+final class OutputFiles {
+    private static final DateTimeFormatter FILE_NAME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS", Locale.ROOT);
+
+    private OutputFiles() {
+    }
+
+    /**
+     * Creates a new empty file in the given directory, e.g. <code>20240630-142501-042.txt</code>.
+     * A counter is appended if a file of the same name already exists, e.g.
+     * <code>20240630-142501-042-1.txt</code>.
+     *
+     * @param directory The directory to create the file in, created if missing.
+     * @param extension The extension of the file, including the dot.
+     * @return The path of the created file.
+     * @throws IOException If the file cannot be created.
+     */
+    static Path create(Path directory, String extension) throws IOException {
+        Files.createDirectories(directory);
+
+        String name = LocalDateTime.now().format(FILE_NAME);
+        for (int attempt = 0; ; attempt++) {
+            Path path = directory.resolve(attempt == 0 ? name + extension : name + "-" + attempt + extension);
+            try {
+                return Files.createFile(path);
+            } catch (FileAlreadyExistsException ignored) {
+            }
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package band.kessokuteatime.reicollapsibleentries.core;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import me.shedaniel.rei.api.common.entry.EntryStack;
+import net.minecraft.text.Text;
+import net.minecraft.util.Identifier;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Proposes collapsible entry groups by clustering identifier paths on their leading and
+ * trailing <code>_</code>-separated tokens, e.g. <code>*_spawn_egg</code> or
+ * <code>*_pressure_plate</code>.
+ * <br />
+ * Every uncovered entry is tokenized once and appended to the posting lists of its one and
+ * two leading and trailing tokens. Postings that reach the size threshold are then accepted
+ * greedily from the largest down, each entry joining at most one proposed group.
+ */
+public class PathTokenGrouper {
+    private static final int PREFIX = 0, PREFIX_2 = 1, SUFFIX = 2, SUFFIX_2 = 3;
+
+    private final Object2IntOpenHashMap<String> tokenIds = new Object2IntOpenHashMap<>();
+    private final List<String> tokens = new ArrayList<>();
+    private final Long2ObjectMap<IntArrayList> postings = new Long2ObjectOpenHashMap<>();
+
+    private PathTokenGrouper() {
+        tokenIds.defaultReturnValue(-1);
+    }
+
+    /**
+     * Proposes groups over the entries that are not covered yet.
+     *
+     * @param index   The entries to cluster.
+     * @param covered The hashes of entries that existing groups already cover.
+     * @param minSize The minimum count of distinct identifiers a proposed group must have.
+     * @return The proposed groups, resolved.
+     */
+    public static List<ModGroup> propose(EntryIndex index, LongSet covered, int minSize) {
+        PathTokenGrouper grouper = new PathTokenGrouper();
+        for (int i = 0; i < index.size(); i++) {
+            if (!covered.contains(index.hash(i)))
+                grouper.post(i, index.get(i).getIdentifier());
+        }
+        return grouper.select(index, Math.max(2, minSize));
+    }
+
+    private void post(int entry, Identifier identifier) {
+        if (identifier == null) return;
+
+        String path = identifier.getPath();
+        String[] split = path.substring(path.lastIndexOf('/') + 1).split("_");
+        if (split.length < 2) return;
+
+        int first = intern(split[0]), last = intern(split[split.length - 1]);
+        posting(key(PREFIX, first, -1)).add(entry);
+        posting(key(SUFFIX, last, -1)).add(entry);
+
+        // Two-token families only make sense if something is left besides them
+        if (split.length > 2) {
+            posting(key(PREFIX_2, first, intern(split[1]))).add(entry);
+            posting(key(SUFFIX_2, intern(split[split.length - 2]), last)).add(entry);
+        }
+    }
+
+    private List<ModGroup> select(EntryIndex index, int minSize) {
+        List<Long> candidates = new ArrayList<>();
+        postings.long2ObjectEntrySet().forEach(posting -> {
+            if (posting.getValue().size() >= minSize) candidates.add(posting.getLongKey());
+        });
+
+        // Largest first, then the more specific two-token families, then by label for determinism
+        candidates.sort(Comparator.<Long>comparingInt(key -> -postings.get(key).size())
+                .thenComparingInt(key -> -tokenCount(key))
+                .thenComparing(this::label));
+
+        boolean[] assigned = new boolean[index.size()];
+        List<ModGroup> groups = new ArrayList<>();
+
+        for (long key : candidates) {
+            IntArrayList posting = postings.get(key), members = new IntArrayList();
+            Set<Identifier> identifiers = new HashSet<>();
+            for (int i = 0; i < posting.size(); i++) {
+                int entry = posting.getInt(i);
+                if (!assigned[entry]) {
+                    members.add(entry);
+                    identifiers.add(index.get(entry).getIdentifier());
+                }
+            }
+            if (identifiers.size() < minSize) continue;
+
+            List<EntryStack<?>> stacks = new ArrayList<>(members.size());
+            for (int i = 0; i < members.size(); i++) {
+                assigned[members.getInt(i)] = true;
+                stacks.add(index.get(members.getInt(i)));
+            }
+
+            ModGroup group = new ModGroup(
+                    ModEntry.THIS.id("auto", position(key) < SUFFIX ? "prefix" : "suffix", tokens(key)),
+                    Text.translatable("collection.reicollapsibleentries.auto", label(key)),
+                    stacks
+            );
+            group.resolve(index);
+            groups.add(group);
+        }
+
+        return groups;
+    }
+
+    private int intern(String token) {
+        int id = tokenIds.getInt(token);
+        if (id < 0) {
+            id = tokens.size();
+            tokenIds.put(token, id);
+            tokens.add(token);
+        }
+        return id;
+    }
+
+    private IntArrayList posting(long key) {
+        IntArrayList posting = postings.get(key);
+        if (posting == null) {
+            posting = new IntArrayList();
+            postings.put(key, posting);
+        }
+        return posting;
+    }
+
+    private static long key(int position, int first, int second) {
+        return ((long) position << 60) | ((long) first << 30) | (second + 1);
+    }
+
+    private static int position(long key) {
+        return (int) (key >>> 60);
+    }
+
+    private static int tokenCount(long key) {
+        return (key & ((1L << 30) - 1)) == 0 ? 1 : 2;
+    }
+
+    private String tokens(long key) {
+        String first = tokens.get((int) ((key >>> 30) & ((1L << 30) - 1)));
+        return tokenCount(key) == 1 ? first : first + "_" + tokens.get((int) (key & ((1L << 30) - 1)) - 1);
+    }
+
+    private String label(long key) {
+        return position(key) < SUFFIX ? tokens(key) + "_*" : "*_" + tokens(key);
+    }
+}
@@ -0,0 +1,131 @@
+package band.kessokuteatime.reicollapsibleentries.core;
+
+import me.shedaniel.rei.api.common.entry.EntryStack;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Reorders the operands of {@link ModPredicate} conjunctions and disjunctions using cost and
+ * selectivity statistics sampled from the current entry list.
+ * <br />
+ * Operands of a conjunction are sorted by <code>cost / (1 - passRate)</code>, operands of a
+ * disjunction by <code>cost / passRate</code>, so that cheap checks that are likely to decide
+ * the result run first.
+ */
+public class PredicateOptimizer {
+    public static final int SAMPLE_SIZE = 512;
+    private static final double EPSILON = 1e-3;
+    /**
+     * How many sampled entries are tested between two checks of the deadline.
+     */
+    private static final int CHECK_INTERVAL = 64;
+
+    private final List<EntryStack<?>> sample;
+    private final Map<ModPredicate, Statistics> statistics = new IdentityHashMap<>();
+
+    private PredicateOptimizer(List<EntryStack<?>> sample) {
+        this.sample = sample;
+    }
+
+    /**
+     * Creates an optimizer that samples evenly across the given entries.
+     *
+     * @param entries The entries to sample from.
+     * @return The optimizer.
+     */
+    public static PredicateOptimizer sample(List<? extends EntryStack<?>> entries) {
+        List<EntryStack<?>> sample = new ArrayList<>(Math.min(SAMPLE_SIZE, entries.size()));
+        int step = Math.max(1, entries.size() / SAMPLE_SIZE);
+        for (int i = 0; i < entries.size() && sample.size() < SAMPLE_SIZE; i += step) {
+            sample.add(entries.get(i));
+        }
+        return new PredicateOptimizer(sample);
+    }
+
+    /**
+     * Creates an optimizer that leaves every predicate untouched.
+     *
+     * @return The optimizer.
+     */
+    public static PredicateOptimizer none() {
+        return new PredicateOptimizer(List.of());
+    }
+
+    public ModPredicate optimize(ModPredicate predicate) {
+        return Objects.requireNonNull(optimize(predicate, Long.MAX_VALUE));
+    }
+
+    /**
+     * Reorders a predicate, giving up once the deadline has passed, as sampling a slow predicate
+     * costs as much as evaluating it.
+     *
+     * @param predicate The predicate to reorder.
+     * @param deadline  The {@link System#nanoTime()} after which to give up.
+     * @return The reordered predicate, or <code>null</code> if the deadline has passed.
+     */
+    public @Nullable ModPredicate optimize(ModPredicate predicate, long deadline) {
+        if (sample.isEmpty())
+            return predicate;
+        return reorder(predicate, deadline);
+    }
+
+    private @Nullable ModPredicate reorder(ModPredicate predicate, long deadline) {
+        if (predicate instanceof NegatedPredicate negated) {
+            ModPredicate operand = reorder(negated.operand(), deadline);
+            if (operand == null) return null;
+            return operand == negated.operand() ? negated : new NegatedPredicate(operand);
+        }
+
+        if (predicate instanceof JunctionPredicate junction) {
+            List<ModPredicate> operands = new ArrayList<>(junction.operands().size());
+            Map<ModPredicate, Double> ranks = new IdentityHashMap<>();
+            for (ModPredicate operand : junction.operands()) {
+                ModPredicate reordered = reorder(operand, deadline);
+                Statistics statistics = reordered == null ? null : measure(reordered, deadline);
+                if (statistics == null) return null;
+
+                operands.add(reordered);
+                ranks.put(reordered, rank(statistics, junction.conjunction()));
+            }
+            operands.sort(Comparator.comparingDouble(ranks::get));
+            return junction.withOperands(operands);
+        }
+
+        return predicate;
+    }
+
+    private static double rank(Statistics statistics, boolean conjunction) {
+        double decisive = conjunction ? 1 - statistics.passRate() : statistics.passRate();
+        return statistics.cost() / Math.max(EPSILON, decisive);
+    }
+
+    private @Nullable Statistics measure(ModPredicate predicate, long deadline) {
+        Statistics cached = statistics.get(predicate);
+        if (cached != null) return cached;
+
+        int passed = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < sample.size(); i++) {
+            if ((i + 1) % CHECK_INTERVAL == 0 && System.nanoTime() > deadline) return null;
+            if (predicate.test(sample.get(i))) passed++;
+        }
+        long elapsed = System.nanoTime() - start;
+
+        Statistics measured = new Statistics((double) elapsed / sample.size(), (double) passed / sample.size());
+        statistics.put(predicate, measured);
+        return measured;
+    }
+
+    /**
+     * @param cost     The average nanoseconds spent per evaluation.
+     * @param passRate The fraction of sampled entries that passed.
+     */
+    private record Statistics(double cost, double passRate) {
+    }
+}
@@ -0,0 +1,158 @@
+package band.kessokuteatime.reicollapsibleentries.core;
+
+import band.kessokuteatime.reicollapsibleentries.REICollapsibleEntries;
+import me.shedaniel.rei.api.client.plugins.REIClientPlugin;
+import me.shedaniel.rei.api.client.registry.entry.CollapsibleEntryRegistry;
+import me.shedaniel.rei.api.common.entry.EntryStack;
+import net.fabricmc.loader.api.FabricLoader;
+import net.minecraft.text.Text;
+import net.minecraft.util.Identifier;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+/**
+ * A {@link CollapsibleEntryRegistry} that records every group registered through it, optionally
+ * forwarding them to another registry. The recorded groups can then be resolved against an entry
+ * list and written into a deterministic snapshot of group members, which can be diffed between
+ * builds or modpack versions, along with the evaluation timings of each group.
+ */
+@SuppressWarnings("UnstableApiUsage")
+public class RecordingCollapsibleEntryRegistry implements CollapsibleEntryRegistry {
+    public static final Path SNAPSHOTS = FabricLoader.getInstance().getGameDir()
+            .resolve(REICollapsibleEntries.ID).resolve("snapshots");
+
+    private final @Nullable CollapsibleEntryRegistry delegate;
+    private final List<Recording> recordings = new ArrayList<>();
+
+    public RecordingCollapsibleEntryRegistry(@Nullable CollapsibleEntryRegistry delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void group(Identifier id, Text name, List<? extends EntryStack<?>> stacks) {
+        recordings.add(new Recording(id, name, List.copyOf(stacks), null));
+        if (delegate != null) delegate.group(id, name, stacks);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void group(Identifier id, Text name, Predicate<? extends EntryStack<?>> predicate) {
+        recordings.add(new Recording(id, name, null, (Predicate<EntryStack<?>>) predicate));
+        if (delegate != null) delegate.group(id, name, predicate);
+    }
+
+    @Override
+    public void startReload() {
+        recordings.clear();
+        if (delegate != null) delegate.startReload();
+    }
+
+    @Override
+    public void endReload() {
+        if (delegate != null) delegate.endReload();
+    }
+
+    @Override
+    public void acceptPlugin(REIClientPlugin plugin) {
+        if (delegate != null) delegate.acceptPlugin(plugin);
+    }
+
+    public List<Recording> recordings() {
+        return List.copyOf(recordings);
+    }
+
+    /**
+     * Resolves every recorded group against the given entries and writes the result into a new
+     * snapshot file under {@link #SNAPSHOTS}. The evaluation timings vary between runs, so they
+     * are written next to it, e.g. <code>20240630-142501-042.timings.txt</code>, keeping the
+     * snapshot itself diffable.
+     *
+     * @param entries The entries to resolve the groups against.
+     * @return The path of the written snapshot.
+     * @throws IOException If the snapshot cannot be written.
+     */
+    public Path writeSnapshot(Collection<? extends EntryStack<?>> entries) throws IOException {
+        Path path = OutputFiles.create(SNAPSHOTS, ".txt");
+        String fileName = path.getFileName().toString();
+        Path timingsPath = path.resolveSibling(fileName.substring(0, fileName.length() - ".txt".length()) + ".timings.txt");
+
+        try (BufferedWriter writer = Files.newBufferedWriter(path);
+             BufferedWriter timings = Files.newBufferedWriter(timingsPath)) {
+            writer.write("# " + REICollapsibleEntries.NAME + " snapshot v1");
+            writer.newLine();
+            writer.write("# entries " + entries.size() + ", groups " + recordings.size());
+            writer.newLine();
+
+            timings.write("# " + REICollapsibleEntries.NAME + " snapshot timings of " + fileName);
+            timings.newLine();
+
+            List<Recording> sorted = recordings.stream()
+                    .sorted(Comparator.comparing(recording -> recording.id().toString()))
+                    .toList();
+
+            for (Recording recording : sorted) {
+                List<? extends EntryStack<?>> members;
+                long elapsed;
+
+                if (recording.predicate() instanceof ModGroup group && group.resolved()) {
+                    // Already resolved by the mod itself, report that instead of the membership lookups
+                    members = group.members();
+                    elapsed = group.resolutionNanos();
+                } else {
+                    long start = System.nanoTime();
+                    members = recording.resolve(entries);
+                    elapsed = System.nanoTime() - start;
+                }
+
+                // Variants share an identifier, so members are counted per identifier to stay deterministic
+                Map<String, Integer> counts = new TreeMap<>();
+                members.forEach(entryStack -> counts.merge(describe(entryStack), 1, Integer::sum));
+
+                writer.write(String.format(Locale.ROOT, "group %s members=%d", recording.id(), members.size()));
+                writer.newLine();
+
+                for (Map.Entry<String, Integer> count : counts.entrySet()) {
+                    writer.write("  " + count.getKey() + (count.getValue() > 1 ? " x" + count.getValue() : ""));
+                    writer.newLine();
+                }
+
+                timings.write(String.format(Locale.ROOT, "group %s time=%.3fms", recording.id(), elapsed / 1e6));
+                timings.newLine();
+            }
+        }
+
+        return path;
+    }
+
+    private static String describe(EntryStack<?> entryStack) {
+        return entryStack.getType().getId() + " " + Objects.toString(entryStack.getIdentifier(), "?");
+    }
+
+    /**
+     * A recorded group. Exactly one of <code>stacks</code> and <code>predicate</code> is present.
+     */
+    public record Recording(
+            Identifier id, Text name,
+            @Nullable List<? extends EntryStack<?>> stacks,
+            @Nullable Predicate<EntryStack<?>> predicate
+    ) {
+        public List<? extends EntryStack<?>> resolve(Collection<? extends EntryStack<?>> entries) {
+            if (stacks != null)
+                return stacks;
+            return entries.stream().filter(Objects.requireNonNull(predicate)).toList();
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package band.kessokuteatime.reicollapsibleentries.core;
+
+import me.shedaniel.rei.api.common.entry.EntryStack;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Deduplicates structurally equal sub-predicates across groups, e.g. <code>mod(tconstruct)</code>
+ * or <code>not(type(fluid))</code>. Every sub-predicate occurring more than once is replaced by a
+ * single shared instance, which remembers its result for every entry of the index it was tested
+ * against.
+ */
+class SharedPredicates {
+    private final Map<ModPredicate, Integer> occurrences = new HashMap<>();
+    private final Map<ModPredicate, ModPredicate> canonical = new HashMap<>();
+
+    private SharedPredicates() {
+    }
+
+    /**
+     * Counts the sub-predicates of the given predicates.
+     *
+     * @param predicates The predicates of all groups evaluated in the same pass.
+     * @return The deduplicator.
+     */
+    static SharedPredicates of(Collection<ModPredicate> predicates) {
+        SharedPredicates shared = new SharedPredicates();
+        predicates.forEach(shared::count);
+        return shared;
+    }
+
+    private void count(ModPredicate predicate) {
+        // Below a repeated node everything is repeated as well, but only evaluated through it
+        if (occurrences.merge(predicate, 1, Integer::sum) > 1) return;
+        predicate.operands().forEach(this::count);
+    }
+
+    /**
+     * Rebuilds a predicate from shared instances of its repeated sub-predicates.
+     *
+     * @param predicate The predicate to rebuild.
+     * @return The rebuilt predicate, equal to the given one.
+     */
+    ModPredicate share(ModPredicate predicate) {
+        ModPredicate existing = canonical.get(predicate);
+        if (existing != null) return existing;
+
+        ModPredicate rebuilt = predicate;
+        if (predicate instanceof JunctionPredicate junction) {
+            rebuilt = junction.withOperands(junction.operands().stream().map(this::share).toList());
+        } else if (predicate instanceof NegatedPredicate negated) {
+            rebuilt = new NegatedPredicate(share(negated.operand()));
+        }
+
+        boolean constant = predicate instanceof LeafPredicate leaf && leaf.kind() == LeafPredicate.Kind.CONSTANT;
+        if (!constant && occurrences.getOrDefault(predicate, 0) > 1) rebuilt = new Shared(rebuilt);
+
+        canonical.put(predicate, rebuilt);
+        return rebuilt;
+    }
+
+    /**
+     * @return The count of sub-predicates that are shared between groups or within one.
+     */
+    int size() {
+        return (int) canonical.values().stream().filter(Shared.class::isInstance).count();
+    }
+
+    /**
+     * A sub-predicate that remembers its results per index position. Only the thread that
+     * created it uses and fills the memory, others evaluate it directly.
+     */
+    private static class Shared implements ModPredicate {
+        private final ModPredicate delegate;
+        private final Thread owner = Thread.currentThread();
+        private @Nullable EntryIndex index = null;
+        private BitSet known = new BitSet(), values = new BitSet();
+
+        private Shared(ModPredicate delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public List<ModPredicate> operands() {
+            return delegate.operands();
+        }
+
+        @Override
+        public String label() {
+            return delegate.label();
+        }
+
+        @Override
+        public boolean variantInvariant() {
+            return delegate.variantInvariant();
+        }
+
+        @Override
+        public boolean test(EntryStack<?> entryStack) {
+            return delegate.test(entryStack);
+        }
+
+        @Override
+        public boolean test(EntryIndex index, int position) {
+            if (Thread.currentThread() != owner) return delegate.test(index, position);
+
+            if (this.index != index) {
+                this.index = index;
+                this.known = new BitSet(index.size());
+                this.values = new BitSet(index.size());
+            }
+
+            if (known.get(position)) return values.get(position);
+
+            boolean value = delegate.test(index, position);
+            known.set(position);
+            if (value) values.set(position);
+            return value;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Shared shared && delegate.equals(shared.delegate);
+        }
+
+        @Override
+        public int hashCode() {
+            return delegate.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return "shared " + delegate;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package band.kessokuteatime.reicollapsibleentries.core;
+
+import band.kessokuteatime.reicollapsibleentries.REICollapsibleEntries;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import me.shedaniel.rei.api.common.util.EntryIngredients;
+import net.minecraft.item.Item;
+import net.minecraft.registry.Registries;
+import net.minecraft.registry.entry.RegistryEntry;
+import net.minecraft.registry.tag.TagKey;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Proposes collapsible entry groups from large item tags, suppressing tags whose members are
+ * near-duplicates of an already chosen tag, e.g. <code>c:glass_blocks/colorless</code> next to
+ * <code>c:glass_blocks</code>.
+ * <br />
+ * Tags are visited from the largest down. A tag is a near-duplicate if a chosen tag contains at
+ * least the given fraction of its members. Overlaps are counted exactly through an inverted index
+ * from items to the chosen tags containing them, so only tags actually sharing items are compared.
+ */
+public class TagGrouper {
+    private record Candidate(TagKey<Item> tagKey, BitSet members, int size) {
+    }
+
+    /**
+     * Proposes tag groups.
+     *
+     * @param registry   The registry whose groups are already chosen.
+     * @param minSize    The minimum count of items a tag must have.
+     * @param similarity The overlap fraction above which a tag is considered a near-duplicate.
+     * @return The proposed groups, unresolved.
+     */
+    public static List<ModGroup> propose(ModGroupRegistry registry, int minSize, double similarity) {
+        return select(registry, minSize, similarity).stream()
+                .map(tagKey -> new ModGroup(
+                        tagKey.id(),
+                        REICollapsibleEntries.paintIdentifier(tagKey.id()),
+                        EntryIngredients.ofItemTag(tagKey)
+                ))
+                .toList();
+    }
+
+    /**
+     * Chooses the tags to propose, see {@link #propose}.
+     *
+     * @return The chosen tags that are not registered yet, from the largest down.
+     */
+    static List<TagKey<Item>> select(ModGroupRegistry registry, int minSize, double similarity) {
+        List<Candidate> candidates = new ArrayList<>();
+        Registries.ITEM.streamTags().forEach(tagKey -> {
+            BitSet members = new BitSet();
+            for (RegistryEntry<Item> entry : Registries.ITEM.iterateEntries(tagKey)) {
+                members.set(Registries.ITEM.getRawId(entry.value()));
+            }
+
+            int size = members.cardinality();
+            if (size >= minSize) candidates.add(new Candidate(tagKey, members, size));
+        });
+
+        candidates.sort(Comparator.comparingInt((Candidate candidate) -> -candidate.size())
+                .thenComparing(candidate -> candidate.tagKey().id().toString()));
+
+        List<Candidate> chosen = new ArrayList<>();
+        Int2ObjectMap<IntArrayList> chosenByItem = new Int2ObjectOpenHashMap<>();
+        List<TagKey<Item>> proposed = new ArrayList<>();
+        int suppressed = 0;
+
+        for (Candidate candidate : candidates) {
+            // Tags already registered by rules also suppress their near-duplicates
+            boolean registered = registry.contains(candidate.tagKey().id());
+
+            if (!registered && isNearDuplicate(candidate, chosenByItem, similarity)) {
+                suppressed++;
+                continue;
+            }
+
+            int index = chosen.size();
+            chosen.add(candidate);
+            candidate.members().stream().forEach(item -> {
+                IntArrayList tags = chosenByItem.get(item);
+                if (tags == null) {
+                    tags = new IntArrayList();
+                    chosenByItem.put(item, tags);
+                }
+                tags.add(index);
+            });
+
+            if (!registered) proposed.add(candidate.tagKey());
+        }
+
+        REICollapsibleEntries.LOGGER.info("Proposed {} tag collapsible entries, suppressed {} near-duplicate tags", proposed.size(), suppressed);
+        return proposed;
+    }
+
+    private static boolean isNearDuplicate(Candidate candidate, Int2ObjectMap<IntArrayList> chosenByItem, double similarity) {
+        Int2IntOpenHashMap overlaps = new Int2IntOpenHashMap();
+        candidate.members().stream().forEach(item -> {
+            IntArrayList tags = chosenByItem.get(item);
+            if (tags == null) return;
+            for (int i = 0; i < tags.size(); i++) {
+                overlaps.addTo(tags.getInt(i), 1);
+            }
+        });
+
+        // Chosen tags are never smaller, so the overlap is relative to the candidate
+        int threshold = (int) Math.ceil(similarity * candidate.size());
+        return overlaps.values().intStream().anyMatch(overlap -> overlap >= threshold);
+    }
+}
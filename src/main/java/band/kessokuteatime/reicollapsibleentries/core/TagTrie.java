@@ -0,0 +1,109 @@
+package band.kessokuteatime.reicollapsibleentries.core;
+
+import it.unimi.dsi.fastutil.chars.Char2ObjectMap;
+import it.unimi.dsi.fastutil.chars.Char2ObjectRBTreeMap;
+import net.minecraft.util.Identifier;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A character trie over tag identifiers, expanding custom tag entries like <code>c:ingots/*</code>
+ * or <code>c:storage_blocks/raw_*</code> into every known tag starting with the part before the
+ * trailing <code>*</code>. Entries without a wildcard only match themselves.
+ * <br />
+ * Every node remembers the tags below it once they were listed, and expansions are cached per
+ * pattern. The last trie is kept as long as the set of tags doesn't change, so reloads of REI
+ * without a data pack reload expand from cache.
+ */
+public class TagTrie {
+    public static final char WILDCARD = '*';
+
+    private static @Nullable TagTrie last = null;
+
+    private final Set<Identifier> tags;
+    private final Node root = new Node();
+    private final Map<String, List<Identifier>> expansions = new HashMap<>();
+
+    private static class Node {
+        private final Char2ObjectMap<Node> children = new Char2ObjectRBTreeMap<>();
+        private @Nullable Identifier tag = null;
+        private @Nullable List<Identifier> below = null;
+
+        private List<Identifier> below() {
+            if (below == null) {
+                List<Identifier> collected = new ArrayList<>();
+                if (tag != null) collected.add(tag);
+                // Children are sorted, so the tags are listed in lexicographic order
+                for (Node child : children.values()) {
+                    collected.addAll(child.below());
+                }
+                below = List.copyOf(collected);
+            }
+            return below;
+        }
+    }
+
+    private TagTrie(Set<Identifier> tags) {
+        this.tags = tags;
+        tags.forEach(this::insert);
+    }
+
+    /**
+     * Gets the trie over the given tags, reusing the previous one if the tags are the same.
+     *
+     * @param tags The identifiers of all known tags.
+     * @return The trie.
+     */
+    public static synchronized TagTrie of(Collection<Identifier> tags) {
+        Set<Identifier> set = Set.copyOf(tags);
+        if (last == null || !last.tags.equals(set)) last = new TagTrie(set);
+        return last;
+    }
+
+    public static boolean isPattern(String entry) {
+        return !entry.isEmpty() && entry.charAt(entry.length() - 1) == WILDCARD;
+    }
+
+    private void insert(Identifier tag) {
+        String key = tag.toString();
+        Node node = root;
+        for (int i = 0; i < key.length(); i++) {
+            node = node.children.computeIfAbsent(key.charAt(i), c -> new Node());
+        }
+        node.tag = tag;
+    }
+
+    /**
+     * Expands a custom tag entry. A namespace may be omitted like in identifiers, so that
+     * <code>ores/*</code> stands for <code>minecraft:ores/*</code>.
+     *
+     * @param entry The entry, either a tag identifier or a prefix followed by <code>*</code>.
+     * @return The matching known tags in lexicographic order, empty if there are none or the
+     * entry is malformed.
+     */
+    public synchronized List<Identifier> expand(String entry) {
+        return expansions.computeIfAbsent(entry, this::lookup);
+    }
+
+    private List<Identifier> lookup(String entry) {
+        if (!isPattern(entry)) {
+            Identifier identifier = Identifier.tryParse(entry);
+            return identifier != null && tags.contains(identifier) ? List.of(identifier) : List.of();
+        }
+
+        String prefix = entry.substring(0, entry.length() - 1);
+        if (prefix.indexOf(':') < 0) prefix = Identifier.DEFAULT_NAMESPACE + ":" + prefix;
+
+        Node node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.children.get(prefix.charAt(i));
+        }
+        return node == null ? List.of() : node.below();
+    }
+}
@@ -0,0 +1,184 @@
+package band.kessokuteatime.reicollapsibleentries.core;
+
+import band.kessokuteatime.reicollapsibleentries.REICollapsibleEntries;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import net.fabricmc.loader.api.FabricLoader;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.Util;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Counts how often each collapsible entry is expanded, so that the most used ones can be
+ * resolved first on the next reload. The counts stay local, in a small file next to the config:
+ * <pre>
+ * 42 minecraft:potions
+ * 7 c:ores
+ * </pre>
+ * At most {@link #CAPACITY} entries are kept, the least expanded ones are forgotten first, and
+ * all counts are halved once one of them reaches {@link #LIMIT}, so that old habits fade.
+ */
+public class UsageCounts {
+    public static final Path PATH = FabricLoader.getInstance().getConfigDir()
+            .resolve(REICollapsibleEntries.ID + ".usage");
+    public static final int CAPACITY = 256;
+    public static final int LIMIT = 1 << 12;
+
+    private static @Nullable UsageCounts instance = null;
+
+    private final Path path;
+    private final Executor writer;
+    private final Object2IntMap<Identifier> counts = new Object2IntOpenHashMap<>();
+    private final Object writeLock = new Object();
+
+    private UsageCounts(Path path, Executor writer) {
+        this.path = path;
+        this.writer = writer;
+    }
+
+    /**
+     * @return The counts of this instance, read from {@link #PATH} on first use.
+     */
+    public static synchronized UsageCounts get() {
+        if (instance == null) instance = read(PATH, Util.getIoWorkerExecutor());
+        return instance;
+    }
+
+    /**
+     * @param path   The path to read from and write to.
+     * @param writer The executor to write the counts on.
+     * @return The counts read, or empty counts if the file is missing.
+     */
+    static UsageCounts read(Path path, Executor writer) {
+        UsageCounts usage = new UsageCounts(path, writer);
+        if (!Files.isRegularFile(path)) return usage;
+
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int space = line.indexOf(' ');
+                if (space < 0) continue;
+
+                Identifier identifier = Identifier.tryParse(line.substring(space + 1).trim());
+                try {
+                    int count = Integer.parseInt(line.substring(0, space));
+                    if (identifier != null && count > 0) usage.counts.put(identifier, Math.min(count, LIMIT));
+                } catch (NumberFormatException ignored) {
+                }
+            }
+        } catch (IOException e) {
+            REICollapsibleEntries.LOGGER.error("Failed to read collapsible entries usage counts!", e);
+        }
+
+        usage.trim(null);
+        return usage;
+    }
+
+    /**
+     * Counts an expansion of a collapsible entry and writes the counts in the background.
+     *
+     * @param identifier The identifier of the expanded entry.
+     */
+    public synchronized void record(Identifier identifier) {
+        if (counts.mergeInt(identifier, 1, Integer::sum) >= LIMIT) {
+            for (Object2IntMap.Entry<Identifier> entry : counts.object2IntEntrySet()) {
+                entry.setValue(entry.getIntValue() / 2);
+            }
+            counts.object2IntEntrySet().removeIf(entry -> entry.getIntValue() == 0);
+        }
+        trim(identifier);
+
+        writer.execute(this::write);
+    }
+
+    /**
+     * Gets how often a group was expanded, including the sub-groups it was split into, e.g.
+     * <code>minecraft:potions/1</code> for <code>minecraft:potions</code>.
+     *
+     * @param identifier The identifier of the group.
+     * @return The count of expansions.
+     */
+    public synchronized int count(Identifier identifier) {
+        int count = counts.getInt(identifier);
+        String prefix = identifier.getPath() + "/";
+        for (Object2IntMap.Entry<Identifier> entry : counts.object2IntEntrySet()) {
+            Identifier other = entry.getKey();
+            if (other.getNamespace().equals(identifier.getNamespace()) && other.getPath().startsWith(prefix))
+                count += entry.getIntValue();
+        }
+        return count;
+    }
+
+    public synchronized boolean isEmpty() {
+        return counts.isEmpty();
+    }
+
+    /**
+     * @return The count of entries whose expansions are kept.
+     */
+    synchronized int size() {
+        return counts.size();
+    }
+
+    /**
+     * Forgets the least expanded entries beyond the capacity, except the given one, so that a
+     * newly expanded entry gets a chance to catch up.
+     */
+    private void trim(@Nullable Identifier keep) {
+        if (counts.size() <= CAPACITY) return;
+
+        List<Identifier> least = counts.object2IntEntrySet().stream()
+                .filter(entry -> !entry.getKey().equals(keep))
+                .sorted(Comparator.comparingInt(Object2IntMap.Entry::getIntValue))
+                .limit(counts.size() - CAPACITY)
+                .map(Map.Entry::getKey)
+                .toList();
+        least.forEach(counts::removeInt);
+    }
+
+    private synchronized List<String> lines() {
+        List<String> lines = new ArrayList<>(counts.size());
+        counts.object2IntEntrySet().stream()
+                .sorted(Comparator.comparingInt(Object2IntMap.Entry<Identifier>::getIntValue).reversed())
+                .forEach(entry -> lines.add(entry.getIntValue() + " " + entry.getKey()));
+        return lines;
+    }
+
+    /**
+     * Writes the latest counts, so that writes finishing out of order don't matter.
+     */
+    private void write() {
+        synchronized (writeLock) {
+            write(lines());
+        }
+    }
+
+    private void write(List<String> lines) {
+        try {
+            // Written aside first, so that a crash never leaves a truncated file behind
+            Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+                for (String line : lines) {
+                    writer.write(line);
+                    writer.newLine();
+                }
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            REICollapsibleEntries.LOGGER.error("Failed to write collapsible entries usage counts!", e);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package band.kessokuteatime.reicollapsibleentries.core;
+
+import me.shedaniel.rei.api.common.entry.EntryStack;
+import me.shedaniel.rei.api.common.entry.type.VanillaEntryTypes;
+import net.minecraft.component.DataComponentTypes;
+import net.minecraft.component.type.ItemEnchantmentsComponent;
+import net.minecraft.component.type.PotionContentsComponent;
+import net.minecraft.enchantment.Enchantment;
+import net.minecraft.item.ItemStack;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.registry.entry.RegistryEntry;
+import net.minecraft.text.Text;
+import net.minecraft.text.Texts;
+import net.minecraft.util.Identifier;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Sorts the component variants of a group's members into sub-groups, e.g. potions by their
+ * potion or enchanted books by their enchantment.
+ */
+@FunctionalInterface
+public interface VariantClassifier {
+    /**
+     * Classifies a member of a group.
+     *
+     * @param entryStack The member.
+     * @return The classification, or <code>null</code> if the member belongs to no sub-group.
+     */
+    @Nullable Classification classify(EntryStack<?> entryStack);
+
+    /**
+     * @param key  The sub-group's key, appended to the parent group's identifier.
+     * @param name The sub-group's name, or <code>null</code> to use the first member's name.
+     */
+    record Classification(Identifier key, @Nullable Text name) {
+    }
+
+    static VariantClassifier potion() {
+        return entryStack -> {
+            if (entryStack.getType() != VanillaEntryTypes.ITEM) return null;
+
+            PotionContentsComponent contents = ((ItemStack) entryStack.getValue()).get(DataComponentTypes.POTION_CONTENTS);
+            if (contents == null) return null;
+
+            return contents.potion()
+                    .flatMap(RegistryEntry::getKey)
+                    .map(RegistryKey::getValue)
+                    .map(key -> new Classification(key, null))
+                    .orElse(null);
+        };
+    }
+
+    /**
+     * Classifies enchanted books by all of their stored enchantments, sorted by identifier, so
+     * that a book is filed under the same sub-group whatever the order of its enchantments, e.g.
+     * <code>minecraft:sharpness/minecraft/unbreaking</code>.
+     */
+    static VariantClassifier enchantment() {
+        return entryStack -> {
+            if (entryStack.getType() != VanillaEntryTypes.ITEM) return null;
+
+            ItemEnchantmentsComponent enchantments = ((ItemStack) entryStack.getValue()).get(DataComponentTypes.STORED_ENCHANTMENTS);
+            if (enchantments == null || enchantments.isEmpty()) return null;
+
+            List<RegistryEntry<Enchantment>> sorted = new ArrayList<>();
+            for (RegistryEntry<Enchantment> enchantment : enchantments.getEnchantments()) {
+                if (enchantment.getKey().isEmpty()) return null;
+                sorted.add(enchantment);
+            }
+            sorted.sort(Comparator.comparing(enchantment -> enchantment.getKey().orElseThrow().getValue()));
+
+            Identifier first = sorted.get(0).getKey().orElseThrow().getValue();
+            StringBuilder path = new StringBuilder(first.getPath());
+            for (RegistryEntry<Enchantment> enchantment : sorted.subList(1, sorted.size())) {
+                Identifier identifier = enchantment.getKey().orElseThrow().getValue();
+                path.append('/').append(identifier.getNamespace()).append('/').append(identifier.getPath());
+            }
+
+            return new Classification(
+                    Identifier.of(first.getNamespace(), path.toString()),
+                    Texts.join(sorted, Text.literal(", "), enchantment -> enchantment.value().description())
+            );
+        };
+    }
+}
@@ -0,0 +1,16 @@
+package band.kessokuteatime.reicollapsibleentries.jfr;
+
+import band.kessokuteatime.reicollapsibleentries.REICollapsibleEntries;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("reicollapsibleentries.ConfigLoad")
+@Label("Config Load")
+@Category(REICollapsibleEntries.NAME)
+@Description("Loading the config before registering collapsible entries.")
+public class ConfigLoadEvent extends jdk.jfr.Event {
+    @Label("Custom Tags")
+    public int customTags;
+}
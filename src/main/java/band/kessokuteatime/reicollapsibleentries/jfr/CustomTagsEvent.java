@@ -0,0 +1,19 @@
+package band.kessokuteatime.reicollapsibleentries.jfr;
+
+import band.kessokuteatime.reicollapsibleentries.REICollapsibleEntries;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("reicollapsibleentries.CustomTags")
+@Label("Custom Tags Resolution")
+@Category(REICollapsibleEntries.NAME)
+@Description("Resolving the configured custom tags into collapsible entries.")
+public class CustomTagsEvent extends jdk.jfr.Event {
+    @Label("Tags")
+    public int tags;
+
+    @Label("Groups")
+    public int groups;
+}
@@ -0,0 +1,75 @@
+package band.kessokuteatime.reicollapsibleentries.jfr;
+
+import band.kessokuteatime.reicollapsibleentries.REICollapsibleEntries;
+import band.kessokuteatime.reicollapsibleentries.core.ModGroup;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+import net.minecraft.util.Identifier;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Name("reicollapsibleentries.FamilyResolution")
+@Label("Family Resolution")
+@Category(REICollapsibleEntries.NAME)
+@Description("The totals of resolving the groups of a family, leaves included, within one resolution pass.")
+public class FamilyResolutionEvent extends jdk.jfr.Event {
+    @Label("Family")
+    @Description("The family of the groups, like in group evaluation events, e.g. minecraft:tools.")
+    public String family;
+
+    @Label("Groups")
+    public int groups;
+
+    @Label("Evaluated Entries")
+    @Description("The count of entries the groups' predicates were tested on.")
+    public long entries;
+
+    @Label("Matches")
+    public long matches;
+
+    @Label("Optimization Time")
+    @Timespan
+    public long optimizationTime;
+
+    @Label("Resolution Time")
+    @Timespan
+    public long resolutionTime;
+
+    @Label("Background")
+    @Description("Whether the groups were resolved in the background after the reload.")
+    public boolean background;
+
+    /**
+     * Commits one event per family of the given groups, counting those that are resolved.
+     *
+     * @param groups     The groups of the pass.
+     * @param background Whether the pass ran in the background.
+     */
+    public static void report(Collection<ModGroup> groups, boolean background) {
+        if (!new FamilyResolutionEvent().isEnabled()) return;
+
+        Map<Identifier, FamilyResolutionEvent> events = new TreeMap<>();
+        for (ModGroup group : groups) {
+            if (!group.resolved()) continue;
+
+            FamilyResolutionEvent event = events.computeIfAbsent(group.family(), family -> new FamilyResolutionEvent());
+            event.groups++;
+            event.entries += group.evaluated();
+            event.matches += group.members().size();
+            event.optimizationTime += group.optimizationNanos();
+            event.resolutionTime += group.resolutionNanos();
+        }
+
+        events.forEach((family, event) -> {
+            if (!event.shouldCommit()) return;
+            event.family = family.toString();
+            event.background = background;
+            event.commit();
+        });
+    }
+}
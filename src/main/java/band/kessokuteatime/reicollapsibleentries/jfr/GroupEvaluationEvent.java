@@ -0,0 +1,26 @@
+package band.kessokuteatime.reicollapsibleentries.jfr;
+
+import band.kessokuteatime.reicollapsibleentries.REICollapsibleEntries;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("reicollapsibleentries.GroupEvaluation")
+@Label("Group Evaluation")
+@Category(REICollapsibleEntries.NAME)
+@Description("Resolving the members of a collapsible entry group.")
+public class GroupEvaluationEvent extends jdk.jfr.Event {
+    @Label("Group")
+    public String group;
+
+    @Label("Family")
+    public String family;
+
+    @Label("Evaluated Entries")
+    @Description("The count of entries the group's predicate was tested on.")
+    public int entries;
+
+    @Label("Matches")
+    public int matches;
+}
@@ -0,0 +1,39 @@
+package band.kessokuteatime.reicollapsibleentries.jfr;
+
+import band.kessokuteatime.reicollapsibleentries.REICollapsibleEntries;
+import band.kessokuteatime.reicollapsibleentries.core.ModGroupRegistry;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("reicollapsibleentries.Registration")
+@Label("Rule Registration")
+@Category(REICollapsibleEntries.NAME)
+@Description("Building the rules of a mod or built-in rule block, before any of them is resolved. See Family Resolution for the time spent resolving them.")
+public class RegistrationEvent extends jdk.jfr.Event {
+    @Label("Rules")
+    @Description("The mod id or rule block whose rules were built, e.g. minecraft or tags.")
+    public String rules;
+
+    @Label("Groups")
+    public int groups;
+
+    private transient int groupsBefore;
+
+    public static RegistrationEvent begin(String rules, ModGroupRegistry registry) {
+        RegistrationEvent event = new RegistrationEvent();
+        event.rules = rules;
+        event.groupsBefore = registry.size();
+        event.begin();
+        return event;
+    }
+
+    public void commit(ModGroupRegistry registry) {
+        end();
+        if (shouldCommit()) {
+            groups = registry.size() - groupsBefore;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package band.kessokuteatime.reicollapsibleentries.mixin;
+
+import band.kessokuteatime.reicollapsibleentries.REICollapsibleEntries;
+import band.kessokuteatime.reicollapsibleentries.core.UsageCounts;
+import me.shedaniel.rei.api.client.registry.entry.CollapsibleEntryRegistry;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Pseudo;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Pseudo
+@Mixin(targets = "me.shedaniel.rei.impl.client.registry.entry.CollapsibleEntryRegistryImpl$Entry", remap = false)
+public class CollapsibleEntryMixin {
+    @Inject(method = "setExpanded", at = @At("HEAD"), remap = false)
+    private void countExpansion(boolean expanded, CallbackInfo ci) {
+        if (!expanded || REICollapsibleEntries.config().eagerGroups() <= 0) return;
+
+        CollapsibleEntryRegistry.Entry entry = (CollapsibleEntryRegistry.Entry) (Object) this;
+        if (!entry.isExpanded()) UsageCounts.get().record(entry.getId());
+    }
+}
@@ -0,0 +1,168 @@
+package band.kessokuteatime.reicollapsibleentries.stress;
+
+import net.fabricmc.api.ModInitializer;
+import net.fabricmc.loader.api.FabricLoader;
+import net.fabricmc.loader.api.ModContainer;
+import net.minecraft.fluid.WaterFluid;
+import net.minecraft.item.Item;
+import net.minecraft.registry.Registries;
+import net.minecraft.registry.Registry;
+import net.minecraft.util.DyeColor;
+import net.minecraft.util.Identifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Registers synthetic items, fluids and item tags at modpack scale, so that reload time and
+ * memory can be measured locally. Only loaded by <code>runClient</code> and inactive unless
+ * <code>-Dreicollapsibleentries.stress.mods</code> is positive.
+ * <br />
+ * Identifiers mimic what the rules in <code>REIClientPlugin</code> target: <code>*_spawn_egg</code>,
+ * dye-colored blocks, <code>tconstruct:*</code> tools and slime grasses and <code>create:*</code>
+ * stone types. The tags are written as data into this mod's own resources, which are a plain
+ * directory in development.
+ */
+public class StressRegistries implements ModInitializer {
+    public static final String ID = "reicollapsibleentries_stress";
+    public static final Logger LOGGER = LoggerFactory.getLogger(ID);
+
+    private static final String[] KINDS = {"wool", "carpet", "concrete", "glass", "bed", "banner", "candle", "shulker_box"};
+    private static final String[] STONES = {
+            "veridium", "scorchia", "scoria", "ochrum", "limestone",
+            "crimsite", "asurine", "tuff", "deepslate", "dripstone",
+            "calcite", "andesite", "diorite", "granite"
+    };
+    private static final String[] STONE_SHAPES = {"cut_%s", "polished_cut_%s", "cut_%s_bricks", "small_%s_bricks", "layered_%s", "%s_pillar"};
+    private static final String[] TOOLS = {"cleaver", "sword", "dagger", "scythe", "kama", "broad_axe", "hand_axe", "pickaxe", "mattock"};
+    private static final String[] SLIMES = {"ichor", "ender", "sky", "earth", "vanilla"};
+
+    private final Map<Identifier, List<Identifier>> tags = new LinkedHashMap<>();
+
+    @Override
+    public void onInitialize() {
+        int mods = Integer.getInteger("reicollapsibleentries.stress.mods", 0);
+        if (mods <= 0) return;
+
+        int items = Integer.getInteger("reicollapsibleentries.stress.items", 300);
+        int fluids = Integer.getInteger("reicollapsibleentries.stress.fluids", 2);
+        int tagsPerMod = Integer.getInteger("reicollapsibleentries.stress.tags", 8);
+
+        long start = System.nanoTime();
+        for (int mod = 0; mod < mods; mod++) {
+            String namespace = String.format(Locale.ROOT, "stress_%03d", mod);
+            List<Identifier> registered = new ArrayList<>(items);
+
+            for (int i = 0; i < items; i++) {
+                registered.add(item(namespace, path(i)));
+            }
+            for (int i = 0; i < fluids; i++) {
+                Registry.register(Registries.FLUID, Identifier.of(namespace, "fluid_" + i), new WaterFluid.Still());
+            }
+
+            // Strided tags overlap like real ones, e.g. every second or third item of a mod
+            for (int tag = 0; tag < tagsPerMod; tag++) {
+                List<Identifier> members = tags.computeIfAbsent(Identifier.of(namespace, "group_" + tag), key -> new ArrayList<>());
+                for (int i = tag % 3; i < registered.size(); i += 2 + tag % 3) {
+                    members.add(registered.get(i));
+                }
+            }
+        }
+
+        if (!FabricLoader.getInstance().isModLoaded("create")) mimicCreate();
+        if (!FabricLoader.getInstance().isModLoaded("tconstruct")) mimicTinkers();
+
+        writeTags();
+        LOGGER.info("Registered {} synthetic mods with {} items, {} fluids and {} tags in {}ms",
+                mods, mods * items, mods * fluids, tags.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static String path(int i) {
+        return switch (i % 3) {
+            case 0 -> "mob_" + i / 3 + "_spawn_egg";
+            case 1 -> DyeColor.values()[(i / 3) % DyeColor.values().length].getName()
+                    + "_" + KINDS[(i / 3 / DyeColor.values().length) % KINDS.length]
+                    + "_" + i / 3 / DyeColor.values().length / KINDS.length;
+            default -> "thing_" + i / 3;
+        };
+    }
+
+    private void mimicCreate() {
+        for (String stone : STONES) {
+            List<Identifier> members = tags.computeIfAbsent(Identifier.of("create", "stone_types/" + stone), key -> new ArrayList<>());
+            for (String shape : STONE_SHAPES) {
+                members.add(item("create", String.format(Locale.ROOT, shape, stone)));
+            }
+        }
+    }
+
+    private void mimicTinkers() {
+        for (String tool : TOOLS) {
+            item("tconstruct", tool);
+        }
+        for (String slime : SLIMES) {
+            item("tconstruct", slime + "_slime_grass");
+            item("tconstruct", slime + "_platform");
+        }
+    }
+
+    private static Identifier item(String namespace, String path) {
+        Identifier identifier = Identifier.of(namespace, path);
+        Registry.register(Registries.ITEM, identifier, new Item(new Item.Settings()));
+        return identifier;
+    }
+
+    /**
+     * Writes the collected tags into the <code>data</code> directory of this mod, replacing the
+     * tags of previous runs.
+     */
+    private void writeTags() {
+        Path root = FabricLoader.getInstance().getModContainer(ID).stream()
+                .map(ModContainer::getRootPaths)
+                .flatMap(List::stream)
+                .filter(path -> path.getFileSystem() == FileSystems.getDefault())
+                .filter(path -> Files.isRegularFile(path.resolve("fabric.mod.json")))
+                .findFirst()
+                .orElse(null);
+
+        if (root == null) {
+            LOGGER.warn("Skipping synthetic tags, the resources of {} are not a directory", ID);
+            return;
+        }
+
+        try {
+            Path data = root.resolve("data");
+            if (Files.isDirectory(data)) {
+                try (Stream<Path> stale = Files.walk(data)) {
+                    for (Path path : stale.sorted(Comparator.reverseOrder()).toList()) {
+                        Files.delete(path);
+                    }
+                }
+            }
+
+            for (Map.Entry<Identifier, List<Identifier>> tag : tags.entrySet()) {
+                Path file = data.resolve(tag.getKey().getNamespace())
+                        .resolve("tags").resolve("item")
+                        .resolve(tag.getKey().getPath() + ".json");
+                Files.createDirectories(file.getParent());
+                Files.writeString(file, "{\"values\":[" + String.join(",", tag.getValue().stream()
+                        .map(member -> "\"" + member + "\"")
+                        .toList()) + "]}");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write synthetic tags", e);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package band.kessokuteatime.reicollapsibleentries.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class REICollapsibleEntriesConfigTest {
+    @Test
+    void valuesAreSortedByName() {
+        List<String> names = new ArrayList<>(new REICollapsibleEntriesConfig().reloadingValues().keySet());
+        List<String> sorted = new ArrayList<>(names);
+        sorted.sort(null);
+        assertEquals(sorted, names);
+    }
+
+    @Test
+    void groupingValuesSkipOptionsNotChangingGroups() {
+        REICollapsibleEntriesConfig config = new REICollapsibleEntriesConfig();
+        Map<String, Object> groupingValues = config.groupingValues();
+
+        REICollapsibleEntriesConfig.HOT_APPLIED.forEach(name -> assertFalse(groupingValues.containsKey(name)));
+        REICollapsibleEntriesConfig.OUTPUT_NEUTRAL.forEach(name -> assertFalse(groupingValues.containsKey(name)));
+        assertTrue(config.reloadingValues().containsKey("eagerGroups"));
+
+        config.recordSnapshots = true;
+        config.eagerGroups = 32;
+        assertEquals(groupingValues, config.groupingValues());
+
+        config.largeGroupSize = 64;
+        assertNotEquals(groupingValues, config.groupingValues());
+    }
+
+    @Test
+    void valuesAreCopied() {
+        REICollapsibleEntriesConfig config = new REICollapsibleEntriesConfig();
+        Map<String, Object> reloadingValues = config.reloadingValues();
+
+        config.customTags.add("c:ingots");
+        assertNotEquals(reloadingValues, config.reloadingValues());
+    }
+}
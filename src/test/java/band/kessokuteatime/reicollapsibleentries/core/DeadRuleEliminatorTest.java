@@ -0,0 +1,117 @@
+package band.kessokuteatime.reicollapsibleentries.core;
+
+import me.shedaniel.rei.api.common.entry.EntryStack;
+import net.minecraft.Bootstrap;
+import net.minecraft.SharedConstants;
+import net.minecraft.item.Item;
+import net.minecraft.item.Items;
+import net.minecraft.registry.tag.TagKey;
+import net.minecraft.text.Text;
+import net.minecraft.util.Identifier;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeadRuleEliminatorTest {
+    private static final TagKey<Item> INGOTS = TestTags.item("c:ingots");
+    private static final TagKey<Item> GEMS = TestTags.item("c:gems");
+
+    private static final EntryStack<?> IRON_INGOT = TestEntries.of("minecraft:iron_ingot");
+    private static final EntryStack<?> ZINC_INGOT = TestEntries.of("create:zinc_ingot");
+    private static final EntryStack<?> WATER = TestEntries.of(TestEntries.FLUID, Identifier.of("minecraft", "water"));
+    private static final List<EntryStack<?>> ENTRIES = List.of(IRON_INGOT, ZINC_INGOT, WATER);
+
+    private static DeadRuleEliminator eliminator;
+
+    @BeforeAll
+    static void bootstrap() {
+        SharedConstants.createGameVersion();
+        Bootstrap.initialize();
+        TestTags.bind(Map.of(INGOTS, List.of(Items.IRON_INGOT), GEMS, List.of()));
+        eliminator = DeadRuleEliminator.of(EntryIndex.of(ENTRIES));
+    }
+
+    @AfterAll
+    static void unbind() {
+        TestTags.bind(Map.of());
+    }
+
+    private static ModGroup group(String identifier, ModPredicate predicate) {
+        return new ModGroup(Identifier.of(identifier), Text.literal(identifier), predicate);
+    }
+
+    @Test
+    void requirementsNoEntryMeetsAreDead() {
+        assertTrue(eliminator.dead(ModPredicate.id(Identifier.of("tconstruct", "pickaxe"))));
+        assertTrue(eliminator.dead(ModPredicate.mod("promenade")));
+        assertTrue(eliminator.dead(ModPredicate.path("diamond_ingot")));
+        assertTrue(eliminator.dead(ModPredicate.tag(GEMS)));
+        assertTrue(eliminator.dead(ModPredicate.tag(TestTags.item("c:unbound"))));
+        assertTrue(eliminator.dead(ModPredicate.tag("dusts")));
+        assertTrue(eliminator.dead(ModPredicate.fail()));
+
+        assertFalse(eliminator.dead(ModPredicate.id(Identifier.of("create", "zinc_ingot"))));
+        assertFalse(eliminator.dead(ModPredicate.mod("promenade", "create")));
+        assertFalse(eliminator.dead(ModPredicate.tag(INGOTS)));
+        assertFalse(eliminator.dead(ModPredicate.tag("ingots")));
+        assertFalse(eliminator.dead(ModPredicate.type(WATER.getType())));
+    }
+
+    @Test
+    void junctionsFollowTheirOperands() {
+        ModPredicate absent = ModPredicate.mod("adastra");
+        ModPredicate present = ModPredicate.mod("create");
+
+        assertTrue(eliminator.dead(present.and(absent)));
+        assertFalse(eliminator.dead(present.or(absent)));
+        assertTrue(eliminator.dead(absent.or(ModPredicate.path("diamond_ingot"))));
+    }
+
+    @Test
+    void negationsAndLambdasAreAssumedToMatch() {
+        assertFalse(eliminator.dead(ModPredicate.mod("create").negate()));
+        assertFalse(eliminator.dead(ModPredicate.mod("adastra").negate()));
+        assertFalse(eliminator.dead(ModPredicate.of(entryStack -> false)));
+        assertFalse(eliminator.dead(ModPredicate.pathTrailing("_disk")));
+    }
+
+    @Test
+    void groupsFollowTheirParentsAndParts() {
+        ModGroup absent = group("computercraft:disks", ModPredicate.mod("computercraft"));
+        ModGroup present = group("create:ingots", ModPredicate.mod("create"));
+
+        assertTrue(eliminator.dead(absent));
+        assertTrue(eliminator.dead(absent.refine(Identifier.of("computercraft", "disks/red"), ModPredicate.pathTrailing("_disk"))));
+        assertFalse(eliminator.dead(present.refine(Identifier.of("create", "ingots/zinc"), ModPredicate.pathLeading("zinc_"))));
+        assertTrue(eliminator.dead(ModGroup.union(Identifier.of("test", "absent"), Text.literal("Absent"), List.of(absent))));
+        assertFalse(eliminator.dead(ModGroup.union(Identifier.of("test", "some"), Text.literal("Some"), List.of(absent, present))));
+        assertTrue(eliminator.dead(new ModGroup(Identifier.of("test", "empty"), Text.literal("Empty"), List.of())));
+    }
+
+    @Test
+    void eliminatedGroupsStayDormantUntilEntriesArrive() {
+        ModGroupRegistry registry = new ModGroupRegistry(new RecordingCollapsibleEntryRegistry(null), PredicateOptimizer.none());
+        ModGroup disks = group("computercraft:disks", ModPredicate.mod("computercraft"));
+        ModGroup ingots = group("create:ingots", ModPredicate.mod("create"));
+        registry.add(disks);
+        registry.add(ingots);
+        EntryIndex index = EntryIndex.of(ENTRIES);
+
+        assertEquals(List.of(disks), registry.eliminate(index));
+        assertTrue(disks.resolved());
+        assertEquals(0, disks.evaluated());
+        assertFalse(ingots.resolved());
+
+        registry.resolve(index);
+        EntryStack<?> disk = TestEntries.of("computercraft:disk");
+        registry.update(List.of(disk), List.of());
+        assertEquals(List.of(disk), disks.members());
+    }
+}
@@ -0,0 +1,159 @@
+package band.kessokuteatime.reicollapsibleentries.core;
+
+import it.unimi.dsi.fastutil.ints.IntList;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.ints.IntSet;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import me.shedaniel.rei.api.common.entry.EntryStack;
+import net.minecraft.Bootstrap;
+import net.minecraft.SharedConstants;
+import net.minecraft.text.Text;
+import net.minecraft.util.Identifier;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Checks that applying changes to the entry list gives the same groups as resolving everything
+ * again against the changed list.
+ */
+class EntryIndexUpdateTest {
+    private static final EntryStack<?> OAK_PLANKS = TestEntries.of("minecraft:oak_planks");
+    private static final EntryStack<?> IRON_INGOT = TestEntries.of("minecraft:iron_ingot");
+    private static final EntryStack<?> STONE = TestEntries.of("minecraft:stone");
+    private static final EntryStack<?> OAK_LOG = TestEntries.of("minecraft:oak_log");
+    private static final EntryStack<?> OAK_LOG_VARIANT = TestEntries.of("minecraft:oak_log");
+    private static final EntryStack<?> OAK_CASING = TestEntries.of("create:oak_casing");
+    private static final EntryStack<?> IRON_SHEET = TestEntries.of("create:iron_sheet");
+    private static final EntryStack<?> COG = TestEntries.of("create:cog");
+    private static final EntryStack<?> COG_VARIANT = TestEntries.of("create:cog");
+    private static final EntryStack<?> WATER = TestEntries.of(TestEntries.FLUID, Identifier.of("minecraft", "water"));
+
+    private static final EntryStack<?> LATE_OAK = TestEntries.of("latemod:oak_thing");
+    private static final EntryStack<?> OAK_CASING_VARIANT = TestEntries.of("create:oak_casing");
+    private static final EntryStack<?> IRON_PLATE = TestEntries.of("create:iron_plate");
+    private static final EntryStack<?> OAK_DOOR = TestEntries.of("minecraft:oak_door");
+
+    private static final List<EntryStack<?>> INITIAL = List.of(
+            OAK_PLANKS, IRON_INGOT, STONE, OAK_LOG, OAK_CASING, IRON_SHEET, COG, OAK_LOG_VARIANT, COG_VARIANT, WATER
+    );
+    private static final List<EntryStack<?>> ADDED = List.of(LATE_OAK, OAK_CASING_VARIANT, IRON_PLATE, OAK_DOOR);
+    // The first cog and oak log are the representatives of their variants
+    private static final List<EntryStack<?>> REMOVED = List.of(IRON_INGOT, COG, OAK_LOG);
+
+    @BeforeAll
+    static void bootstrap() {
+        SharedConstants.createGameVersion();
+        Bootstrap.initialize();
+    }
+
+    private static List<EntryStack<?>> changed() {
+        List<EntryStack<?>> entries = new ArrayList<>(INITIAL);
+        entries.removeAll(REMOVED);
+        entries.addAll(ADDED);
+        return entries;
+    }
+
+    private static Identifier id(String path) {
+        return Identifier.of("test", path);
+    }
+
+    private static ModGroupRegistry registry(EntryIndex index) {
+        ModGroupRegistry registry = new ModGroupRegistry(new RecordingCollapsibleEntryRegistry(null), PredicateOptimizer.none());
+
+        ModGroup oak = ModGroup.leaf(id("leaves/oak"), ModPredicate.pathLeading("oak"));
+        ModGroup iron = ModGroup.leaf(id("leaves/iron"), ModPredicate.pathLeading("iron"));
+
+        registry.group(id("create"), Text.literal("Create"), ModPredicate.mod("create"));
+        registry.add(ModGroup.union(id("materials"), Text.literal("Materials"), List.of(oak, iron)));
+        registry.add(ModGroup.union(id("create_oak"), Text.literal("Create Oak"), List.of(
+                oak.refine(id("leaves/create_oak"), ModPredicate.mod("create"))
+        )));
+        // Not variant invariant, so every entry is evaluated
+        registry.group(id("short"), Text.literal("Short"), ModPredicate.of(entryStack ->
+                entryStack.getIdentifier() != null && entryStack.getIdentifier().getPath().length() <= 9));
+        // Can't match anything until an entry of the mod is added
+        registry.group(id("late"), Text.literal("Late"), ModPredicate.mod("latemod"));
+
+        registry.eliminate(index);
+        registry.resolve(index);
+        return registry;
+    }
+
+    private static Map<Identifier, LongSet> members(ModGroupRegistry registry) {
+        Map<Identifier, LongSet> members = new HashMap<>();
+        registry.groups().forEach(group -> members.put(group.identifier(), new LongOpenHashSet(group.hashes())));
+        return members;
+    }
+
+    private static Set<EntryStack<?>> entries(EntryIndex index, IntList positions) {
+        Set<EntryStack<?>> entries = new HashSet<>();
+        for (int i = 0; i < positions.size(); i++) {
+            entries.add(index.get(positions.getInt(i)));
+        }
+        return entries;
+    }
+
+    @Test
+    void updatedIndexMatchesFreshIndex() {
+        EntryIndex updated = EntryIndex.of(INITIAL);
+        IntSet removed = new IntOpenHashSet();
+        REMOVED.forEach(entryStack -> removed.add(updated.position(entryStack)));
+        updated.update(ADDED, removed);
+        EntryIndex fresh = EntryIndex.of(changed());
+
+        assertEquals(fresh.count(), updated.count());
+        for (EntryStack<?> entryStack : changed()) {
+            assertSame(entryStack, updated.get(updated.position(entryStack)));
+        }
+        for (EntryStack<?> entryStack : REMOVED) {
+            assertEquals(-1, updated.position(entryStack));
+        }
+
+        Map<EntryStack<?>, Set<EntryStack<?>>> updatedVariants = new HashMap<>();
+        for (int representative : updated.representatives()) {
+            updatedVariants.put(updated.get(representative), entries(updated, updated.variants(representative)));
+        }
+        Map<EntryStack<?>, Set<EntryStack<?>>> freshVariants = new HashMap<>();
+        for (int representative : fresh.representatives()) {
+            freshVariants.put(fresh.get(representative), entries(fresh, fresh.variants(representative)));
+        }
+        assertEquals(freshVariants, updatedVariants);
+    }
+
+    @Test
+    void updatedGroupsMatchFreshGroups() {
+        ModGroupRegistry updated = registry(EntryIndex.of(INITIAL));
+        updated.update(ADDED, REMOVED);
+
+        assertEquals(members(registry(EntryIndex.of(changed()))), members(updated));
+    }
+
+    @Test
+    void splitGroupsTakeAdditionsFromTheirOrigin() {
+        ModGroupRegistry updated = registry(EntryIndex.of(INITIAL));
+        updated.splitLarge(1, true);
+        updated.update(ADDED, REMOVED);
+
+        Map<Identifier, LongSet> fresh = members(registry(EntryIndex.of(changed())));
+        Map<Identifier, LongSet> merged = new HashMap<>();
+        for (ModGroup group : updated.groups()) {
+            // Pages are named after the group they were split from, which has no slash in its path
+            String path = group.identifier().getPath();
+            Identifier unsplit = id(path.contains("/") ? path.substring(0, path.indexOf('/')) : path);
+            merged.computeIfAbsent(unsplit, key -> new LongOpenHashSet()).addAll(group.hashes());
+        }
+
+        assertEquals(fresh, merged);
+    }
+}
@@ -0,0 +1,131 @@
+package band.kessokuteatime.reicollapsibleentries.core;
+
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import me.shedaniel.rei.api.common.entry.EntryStack;
+import net.minecraft.Bootstrap;
+import net.minecraft.SharedConstants;
+import net.minecraft.component.DataComponentTypes;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.Items;
+import net.minecraft.registry.DynamicRegistryManager;
+import net.minecraft.registry.Registries;
+import net.minecraft.registry.RegistryWrapper;
+import net.minecraft.text.Text;
+import net.minecraft.util.Identifier;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GroupManifestTest {
+    private static final Identifier DAMAGED = Identifier.of("test", "damaged");
+    private static final Identifier APPLES = Identifier.of("test", "apples");
+    private static final Identifier NOTHING = Identifier.of("test", "nothing");
+
+    private static final List<EntryStack<?>> ENTRIES = new ArrayList<>();
+    private static RegistryWrapper.WrapperLookup registries;
+
+    @TempDir
+    Path directory;
+
+    @BeforeAll
+    static void bootstrap() {
+        SharedConstants.createGameVersion();
+        Bootstrap.initialize();
+        registries = DynamicRegistryManager.of(Registries.REGISTRIES);
+
+        for (int damage = 0; damage < 4; damage++) {
+            ItemStack sword = new ItemStack(Items.IRON_SWORD);
+            sword.set(DataComponentTypes.DAMAGE, damage);
+            ENTRIES.add(TestEntries.item(sword));
+        }
+        ENTRIES.add(TestEntries.item(new ItemStack(Items.APPLE)));
+        ENTRIES.add(TestEntries.item(new ItemStack(Items.STONE)));
+    }
+
+    private static ModGroupRegistry registry(EntryIndex index) {
+        ModGroupRegistry registry = new ModGroupRegistry(new RecordingCollapsibleEntryRegistry(null), PredicateOptimizer.none());
+        // Only some of the variants, so that the manifest lists them by signature
+        registry.group(DAMAGED, Text.literal("Damaged"), ModPredicate.of(entryStack ->
+                entryStack.getValue() instanceof ItemStack stack && stack.getDamage() % 2 == 1));
+        registry.group(APPLES, Text.literal("Apples"), ModPredicate.id(Identifier.of("minecraft", "apple")));
+        registry.group(NOTHING, Text.literal("Nothing"), ModPredicate.mod("absent"));
+        registry.resolve(index);
+        return registry;
+    }
+
+    private static Map<Identifier, LongSet> members(List<ModGroup> groups) {
+        Map<Identifier, LongSet> members = new HashMap<>();
+        groups.forEach(group -> members.put(group.identifier(), new LongOpenHashSet(group.hashes())));
+        return members;
+    }
+
+    @Test
+    void readsBackWrittenGroups() throws IOException {
+        EntryIndex index = EntryIndex.of(ENTRIES);
+        ModGroupRegistry registry = registry(index);
+        Path path = directory.resolve("manifest");
+
+        // Empty groups are left out
+        assertEquals(2, GroupManifest.write(path, "test", registry, index, registries));
+
+        Optional<List<ModGroup>> groups = GroupManifest.read(path, "test", index, registries);
+        assertTrue(groups.isPresent());
+        groups.get().forEach(group -> assertTrue(group.resolved()));
+
+        Map<Identifier, LongSet> expected = members(registry.groups());
+        expected.remove(NOTHING);
+        assertEquals(expected, members(groups.get()));
+        assertEquals(2, members(groups.get()).get(DAMAGED).size());
+    }
+
+    @Test
+    void picksVariantsBySignatureRegardlessOfOrder() throws IOException {
+        EntryIndex index = EntryIndex.of(ENTRIES);
+        Path path = directory.resolve("manifest");
+        GroupManifest.write(path, "test", registry(index), index, registries);
+
+        List<EntryStack<?>> reordered = new ArrayList<>(ENTRIES);
+        Collections.reverse(reordered);
+        EntryIndex reorderedIndex = EntryIndex.of(reordered);
+
+        Optional<List<ModGroup>> groups = GroupManifest.read(path, "test", reorderedIndex, registries);
+        assertTrue(groups.isPresent());
+        assertEquals(members(registry(reorderedIndex).groups()).get(DAMAGED), members(groups.get()).get(DAMAGED));
+    }
+
+    @Test
+    void ignoresOtherFingerprints() throws IOException {
+        EntryIndex index = EntryIndex.of(ENTRIES);
+        Path path = directory.resolve("manifest");
+        GroupManifest.write(path, "test", registry(index), index, registries);
+
+        assertEquals(Optional.empty(), GroupManifest.read(path, "other", index, registries));
+        assertEquals(Optional.empty(), GroupManifest.read(directory.resolve("missing"), "test", index, registries));
+    }
+
+    @Test
+    void ignoresMissingEntries() throws IOException {
+        EntryIndex index = EntryIndex.of(ENTRIES);
+        Path path = directory.resolve("manifest");
+        GroupManifest.write(path, "test", registry(index), index, registries);
+
+        // The apple is gone, so the manifest doesn't match the entries anymore
+        EntryIndex withoutApple = EntryIndex.of(ENTRIES.stream()
+                .filter(entryStack -> !Identifier.of("minecraft", "apple").equals(entryStack.getIdentifier()))
+                .toList());
+        assertEquals(Optional.empty(), GroupManifest.read(path, "test", withoutApple, registries));
+    }
+}
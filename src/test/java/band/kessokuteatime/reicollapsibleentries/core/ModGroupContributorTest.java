@@ -0,0 +1,60 @@
+package band.kessokuteatime.reicollapsibleentries.core;
+
+import me.shedaniel.rei.api.common.entry.EntryStack;
+import net.minecraft.text.Text;
+import net.minecraft.util.Identifier;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ModGroupContributorTest {
+    private static final List<EntryStack<?>> ENTRIES = List.of(
+            TestEntries.of("example:red_widget"), TestEntries.of("example:blue_widget"), TestEntries.of("minecraft:stick")
+    );
+
+    private static ModGroupRegistry registry() {
+        ModGroupRegistry registry = new ModGroupRegistry(new RecordingCollapsibleEntryRegistry(null), PredicateOptimizer.none());
+        registry.group(Identifier.of("minecraft", "sticks"), Text.literal("Sticks"), ModPredicate.path("stick"));
+        return registry;
+    }
+
+    @Test
+    void contributedGroupsAreResolvedWithTheOthers() {
+        ModGroupRegistry registry = registry();
+        registry.contribute(contributed -> ModPredicateBuilder.of(Identifier.of("example", "widgets"), Text.literal("Widgets"))
+                .predicate(ModPredicate.mod("example").and(ModPredicate.pathTrailing("_widget")))
+                .register(contributed));
+
+        registry.resolve(EntryIndex.of(ENTRIES));
+
+        ModGroup widgets = registry.group(Identifier.of("example", "widgets")).orElseThrow();
+        assertEquals(ENTRIES.subList(0, 2), widgets.members());
+        // Contributed groups don't belong to any built-in mod, so their namespace toggles them
+        assertNull(widgets.source());
+        assertEquals(2, registry.toggle(List.of("example", "minecraft"), List.of()));
+    }
+
+    @Test
+    void failingContributorsLeaveNoGroupBehind() {
+        ModGroupRegistry registry = registry();
+        IllegalStateException failure = new IllegalStateException("broken");
+
+        assertSame(failure, assertThrows(IllegalStateException.class, () -> registry.contribute(contributed -> {
+            contributed.group(Identifier.of("example", "first"), Text.literal("First"), ModPredicate.mod("example"));
+            throw failure;
+        })));
+        assertThrows(NoClassDefFoundError.class, () -> registry.contribute(contributed -> {
+            contributed.group(Identifier.of("example", "second"), Text.literal("Second"), ModPredicate.mod("example"));
+            throw new NoClassDefFoundError("com/example/Missing");
+        }));
+
+        assertEquals(1, registry.size());
+        assertTrue(registry.contains(Identifier.of("minecraft", "sticks")));
+    }
+}
@@ -0,0 +1,94 @@
+package band.kessokuteatime.reicollapsibleentries.core;
+
+import me.shedaniel.rei.api.common.entry.EntryStack;
+import net.minecraft.text.Text;
+import net.minecraft.util.Identifier;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ModGroupHierarchyTest {
+    private static final EntryStack<?> IRON_HELMET = TestEntries.of("minecraft:iron_helmet");
+    private static final EntryStack<?> IRON_CHESTPLATE = TestEntries.of("minecraft:iron_chestplate");
+    private static final EntryStack<?> GOLDEN_HELMET = TestEntries.of("minecraft:golden_helmet");
+    private static final EntryStack<?> GOLDEN_CHESTPLATE = TestEntries.of("minecraft:golden_chestplate");
+    private static final EntryStack<?> STICK = TestEntries.of("minecraft:stick");
+    private static final List<EntryStack<?>> ENTRIES = List.of(IRON_HELMET, GOLDEN_HELMET, STICK, IRON_CHESTPLATE, GOLDEN_CHESTPLATE);
+
+    private final AtomicInteger tested = new AtomicInteger();
+
+    // Armors by material and by type, as views over the same four leaves
+    private final ModGroup armors = ModGroup.leaf(Identifier.of("test", "armors"), ModPredicate.of(entryStack -> {
+        tested.incrementAndGet();
+        String path = entryStack.getIdentifier().getPath();
+        return path.endsWith("_helmet") || path.endsWith("_chestplate");
+    }));
+    private final ModGroup ironHelmets = armors.refine(Identifier.of("test", "iron_helmets"), ModPredicate.path("iron_helmet"));
+    private final ModGroup ironChestplates = armors.refine(Identifier.of("test", "iron_chestplates"), ModPredicate.path("iron_chestplate"));
+    private final ModGroup goldenHelmets = armors.refine(Identifier.of("test", "golden_helmets"), ModPredicate.path("golden_helmet"));
+    private final ModGroup goldenChestplates = armors.refine(Identifier.of("test", "golden_chestplates"), ModPredicate.path("golden_chestplate"));
+
+    private final ModGroup iron = ModGroup.union(Identifier.of("test", "armors/iron"), Text.literal("Iron"), List.of(ironHelmets, ironChestplates));
+    private final ModGroup golden = ModGroup.union(Identifier.of("test", "armors/golden"), Text.literal("Golden"), List.of(goldenHelmets, goldenChestplates));
+    private final ModGroup helmets = ModGroup.union(Identifier.of("test", "armor_types/helmet"), Text.literal("Helmets"), List.of(ironHelmets, goldenHelmets));
+    private final ModGroup chestplates = ModGroup.union(Identifier.of("test", "armor_types/chestplate"), Text.literal("Chestplates"), List.of(ironChestplates, goldenChestplates));
+
+    private ModGroupRegistry registry() {
+        ModGroupRegistry registry = new ModGroupRegistry(new RecordingCollapsibleEntryRegistry(null), PredicateOptimizer.none());
+        List.of(iron, golden, helmets, chestplates).forEach(registry::add);
+        registry.resolve(EntryIndex.of(ENTRIES));
+        return registry;
+    }
+
+    @Test
+    void evaluatesSharedParentsAndLeavesOnce() {
+        registry();
+
+        assertEquals(ENTRIES.size(), tested.get());
+        // Refinements only test the parent's members
+        assertEquals(4, ironHelmets.evaluated());
+        List.of(iron, golden, helmets, chestplates).forEach(group -> {
+            assertTrue(group.resolved());
+            assertEquals(0, group.evaluated());
+        });
+    }
+
+    @Test
+    void unitesLeavesInEntryOrder() {
+        registry();
+
+        assertEquals(List.of(IRON_HELMET, IRON_CHESTPLATE), iron.members());
+        assertEquals(List.of(IRON_HELMET, GOLDEN_HELMET), helmets.members());
+        assertEquals(List.of(GOLDEN_HELMET, GOLDEN_CHESTPLATE), golden.members());
+        assertTrue(chestplates.test(IRON_CHESTPLATE));
+        assertFalse(chestplates.test(STICK));
+    }
+
+    @Test
+    void overlappingLeavesShareMembersOnce() {
+        ModGroup ironOrHelmets = ModGroup.union(Identifier.of("test", "iron_or_helmets"), Text.literal("Iron or helmets"), List.of(iron, helmets));
+        ModGroupRegistry registry = registry();
+        registry.add(ironOrHelmets);
+        registry.resolve(registry.index().orElseThrow());
+
+        assertEquals(List.of(IRON_HELMET, GOLDEN_HELMET, IRON_CHESTPLATE), ironOrHelmets.members());
+        assertEquals(3, ironOrHelmets.hashes().size());
+    }
+
+    @Test
+    void updatesLeavesBeforeTheirViews() {
+        ModGroupRegistry registry = registry();
+        EntryStack<?> ironHelmet = TestEntries.copy(IRON_HELMET);
+
+        registry.update(List.of(ironHelmet), List.of(GOLDEN_HELMET));
+
+        assertEquals(List.of(IRON_HELMET, ironHelmet), helmets.members());
+        assertEquals(List.of(IRON_HELMET, IRON_CHESTPLATE, ironHelmet), iron.members());
+        assertEquals(List.of(GOLDEN_CHESTPLATE), golden.members());
+    }
+}
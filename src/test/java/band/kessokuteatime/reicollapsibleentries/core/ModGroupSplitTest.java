@@ -0,0 +1,86 @@
+package band.kessokuteatime.reicollapsibleentries.core;
+
+import me.shedaniel.rei.api.common.entry.EntryStack;
+import net.minecraft.text.Text;
+import net.minecraft.util.Identifier;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ModGroupSplitTest {
+    private static final List<EntryStack<?>> ORES = List.of(
+            TestEntries.of("minecraft:iron_ore"), TestEntries.of("create:zinc_ore"), TestEntries.of("minecraft:gold_ore"),
+            TestEntries.of("minecraft:copper_ore"), TestEntries.of("create:deepslate_zinc_ore")
+    );
+
+    private static ModGroup ores() {
+        ModGroup ores = new ModGroup(Identifier.of("c", "ores"), Text.literal("Ores"), ModPredicate.pathTrailing("_ore"));
+        ores.resolve(EntryIndex.of(ORES));
+        return ores;
+    }
+
+    private static Map<String, ModGroup> byPath(List<ModGroup> groups) {
+        return groups.stream().collect(Collectors.toMap(group -> group.identifier().getPath(), Function.identity()));
+    }
+
+    @Test
+    void keepsSmallGroups() {
+        ModGroup ores = ores();
+        assertEquals(List.of(ores), ores.split(5, true));
+    }
+
+    @Test
+    void splitsByNamespaceThenIntoPages() {
+        Map<String, ModGroup> split = byPath(ores().split(2, true));
+
+        assertEquals(3, split.size());
+        assertEquals(List.of(ORES.get(0), ORES.get(2)), split.get("ores/minecraft/1").members());
+        assertEquals(List.of(ORES.get(3)), split.get("ores/minecraft/2").members());
+        assertEquals(List.of(ORES.get(1), ORES.get(4)), split.get("ores/create").members());
+        split.values().forEach(group -> {
+            assertTrue(group.resolved());
+            assertEquals(0, group.evaluated());
+        });
+    }
+
+    @Test
+    void splitsIntoPagesOnly() {
+        List<ModGroup> split = ores().split(2, false);
+
+        assertEquals(List.of("ores/1", "ores/2", "ores/3"), split.stream().map(group -> group.identifier().getPath()).toList());
+        assertEquals(ORES, split.stream().flatMap(group -> group.members().stream()).toList());
+    }
+
+    @Test
+    void inheritsDisabling() {
+        ModGroup ores = ores();
+        ores.setEnabled(false);
+        ores.split(2, true).forEach(group -> assertFalse(group.enabled()));
+    }
+
+    @Test
+    void addedEntriesJoinTheLastPageOfTheirNamespace() {
+        ModGroupRegistry registry = new ModGroupRegistry(new RecordingCollapsibleEntryRegistry(null), PredicateOptimizer.none());
+        registry.group(Identifier.of("c", "ores"), Text.literal("Ores"), ModPredicate.pathTrailing("_ore"));
+        registry.resolve(EntryIndex.of(ORES));
+        registry.splitLarge(2, true);
+
+        EntryStack<?> coal = TestEntries.of("minecraft:coal_ore");
+        EntryStack<?> tin = TestEntries.of("mekanism:tin_ore");
+        registry.update(List.of(coal, tin), List.of());
+
+        Map<String, ModGroup> split = byPath(registry.groups());
+        assertEquals(List.of(ORES.get(3), coal), split.get("ores/minecraft/2").members());
+        assertEquals(2, split.get("ores/minecraft/1").members().size());
+        // Namespaces without a page yet join the very last one
+        assertSame(tin, split.get("ores/create").members().get(2));
+    }
+}
@@ -0,0 +1,46 @@
+package band.kessokuteatime.reicollapsibleentries.core;
+
+import me.shedaniel.rei.api.common.entry.EntryStack;
+import me.shedaniel.rei.api.common.util.EntryStacks;
+import net.minecraft.text.Text;
+import net.minecraft.util.Identifier;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ModGroupTest {
+    private static final EntryStack<?> POTION = TestEntries.of("minecraft:potion");
+    private static final EntryStack<?> POTION_COPY = TestEntries.copy(POTION);
+    private static final EntryStack<?> ARROW = TestEntries.of("minecraft:tipped_arrow");
+
+    private static ModGroupRegistry registry(ModGroup group) {
+        ModGroupRegistry registry = new ModGroupRegistry(new RecordingCollapsibleEntryRegistry(null), PredicateOptimizer.none());
+        registry.add(group);
+        registry.resolve(EntryIndex.of(List.of(POTION, POTION_COPY, ARROW)));
+        return registry;
+    }
+
+    @Test
+    void removingAnEntryKeepsMembersSharingItsHash() {
+        ModGroup group = new ModGroup(Identifier.of("test", "all"), Text.literal("All"), ModPredicate.mod("minecraft"));
+        registry(group).update(List.of(), List.of(POTION));
+
+        assertEquals(List.of(POTION_COPY, ARROW), group.members());
+        assertTrue(group.hashes().contains(EntryStacks.hashExact(POTION)));
+        assertEquals(List.of(1, 2), group.positions());
+    }
+
+    @Test
+    void removingAnEntryTakesOneFixedStackOfItsHash() {
+        ModGroup group = new ModGroup(Identifier.of("test", "fixed"), Text.literal("Fixed"), List.of(POTION, POTION_COPY, ARROW));
+        registry(group).update(List.of(), List.of(POTION));
+
+        assertEquals(2, group.members().size());
+        assertSame(ARROW, group.members().get(1));
+        assertTrue(group.hashes().contains(EntryStacks.hashExact(POTION)));
+    }
+}
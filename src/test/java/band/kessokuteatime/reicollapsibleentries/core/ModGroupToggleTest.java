@@ -0,0 +1,55 @@
+package band.kessokuteatime.reicollapsibleentries.core;
+
+import me.shedaniel.rei.api.common.entry.EntryStack;
+import net.minecraft.text.Text;
+import net.minecraft.util.Identifier;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ModGroupToggleTest {
+    private static final EntryStack<?> BUCKET = TestEntries.of("minecraft:bucket");
+    private static final EntryStack<?> SEARED_BUCKET = TestEntries.of("tconstruct:seared_bucket");
+
+    private static ModGroup group(String identifier, ModEntry source) {
+        ModGroup group = new ModGroup(Identifier.of(identifier), Text.literal(identifier), ModPredicate.pathTrailing("bucket"));
+        group.setSource(source);
+        return group;
+    }
+
+    @Test
+    void togglesBySourceRatherThanNamespace() {
+        ModGroupRegistry registry = new ModGroupRegistry(new RecordingCollapsibleEntryRegistry(null), PredicateOptimizer.none());
+        ModGroup filedUnderMinecraft = group("minecraft:buckets/tinkers", ModEntry.TIC);
+        ModGroup vanilla = group("minecraft:buckets", ModEntry.MC);
+        ModGroup tagged = new ModGroup(Identifier.of("tconstruct:casts"), Text.literal("Casts"), List.of(SEARED_BUCKET));
+        registry.add(filedUnderMinecraft);
+        registry.add(vanilla);
+        registry.add(tagged);
+
+        assertEquals(2, registry.toggle(List.of("tconstruct"), List.of()));
+        assertFalse(filedUnderMinecraft.enabled());
+        assertTrue(vanilla.enabled());
+        // Without a source, the namespace decides
+        assertFalse(tagged.enabled());
+    }
+
+    @Test
+    void resolvesGroupsOnceEnabled() {
+        ModGroupRegistry registry = new ModGroupRegistry(new RecordingCollapsibleEntryRegistry(null), PredicateOptimizer.none());
+        ModGroup group = group("tconstruct:buckets", ModEntry.TIC);
+        registry.add(group);
+
+        registry.toggle(List.of("tconstruct"), List.of());
+        registry.resolve(EntryIndex.of(List.of(BUCKET, SEARED_BUCKET)));
+        assertFalse(group.resolved());
+
+        registry.toggle(List.of(), List.of());
+        assertTrue(group.resolved());
+        assertEquals(List.of(BUCKET, SEARED_BUCKET), group.members());
+    }
+}
@@ -0,0 +1,111 @@
+package band.kessokuteatime.reicollapsibleentries.core;
+
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import me.shedaniel.rei.api.common.entry.EntryStack;
+import me.shedaniel.rei.api.common.util.EntryStacks;
+import net.minecraft.util.Identifier;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTimeout;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PathTokenGrouperTest {
+    private static List<EntryStack<?>> entries(String... identifiers) {
+        return Stream.of(identifiers).<EntryStack<?>>map(TestEntries::of).toList();
+    }
+
+    private static Map<String, ModGroup> byPath(List<ModGroup> groups) {
+        return groups.stream().collect(Collectors.toMap(group -> group.identifier().getPath(), Function.identity()));
+    }
+
+    private static Set<Identifier> identifiers(ModGroup group) {
+        Set<Identifier> identifiers = new HashSet<>();
+        group.members().forEach(member -> identifiers.add(member.getIdentifier()));
+        return identifiers;
+    }
+
+    @Test
+    void proposesPrefixAndSuffixFamilies() {
+        EntryIndex index = EntryIndex.of(entries(
+                "create:oak_button", "create:birch_button", "minecraft:spruce_button",
+                "create:copper_sheet_metal", "create:zinc_sheet_metal", "create:brass_sheet_metal",
+                "create:lonely_thing"
+        ));
+
+        Map<String, ModGroup> groups = byPath(PathTokenGrouper.propose(index, new LongOpenHashSet(), 3));
+
+        assertEquals(Set.of("auto/suffix/button", "auto/suffix/sheet_metal"), groups.keySet());
+        assertEquals(Set.of(Identifier.of("create:oak_button"), Identifier.of("create:birch_button"), Identifier.of("minecraft:spruce_button")),
+                identifiers(groups.get("auto/suffix/button")));
+        groups.values().forEach(group -> assertTrue(group.resolved()));
+    }
+
+    @Test
+    void skipsCoveredEntries() {
+        List<EntryStack<?>> entries = entries("create:oak_button", "create:birch_button", "create:spruce_button");
+        LongSet covered = new LongOpenHashSet();
+        covered.add(EntryStacks.hashExact(entries.get(0)));
+
+        assertTrue(PathTokenGrouper.propose(EntryIndex.of(entries), covered, 3).isEmpty());
+        assertEquals(1, PathTokenGrouper.propose(EntryIndex.of(entries), covered, 2).size());
+    }
+
+    @Test
+    void countsDistinctIdentifiersOnly() {
+        // Variants of the same item don't make a family by themselves
+        EntryIndex index = EntryIndex.of(entries(
+                "minecraft:tipped_arrow", "minecraft:tipped_arrow", "minecraft:tipped_arrow", "minecraft:spectral_arrow"
+        ));
+
+        assertTrue(PathTokenGrouper.propose(index, new LongOpenHashSet(), 3).isEmpty());
+        assertEquals(4, PathTokenGrouper.propose(index, new LongOpenHashSet(), 2).get(0).members().size());
+    }
+
+    @Test
+    void assignsEveryEntryOnce() {
+        EntryIndex index = EntryIndex.of(entries(
+                "create:oak_slab", "create:oak_stairs", "create:oak_wall", "create:oak_fence",
+                "create:birch_slab", "create:spruce_slab"
+        ));
+
+        List<ModGroup> groups = PathTokenGrouper.propose(index, new LongOpenHashSet(), 3);
+        Set<EntryStack<?>> seen = new HashSet<>();
+        groups.forEach(group -> group.members().forEach(member -> assertTrue(seen.add(member), member + " proposed twice")));
+
+        // The larger prefix family wins the shared entry
+        Map<String, ModGroup> byPath = byPath(groups);
+        assertEquals(4, byPath.get("auto/prefix/oak").members().size());
+        assertFalse(byPath.containsKey("auto/suffix/slab"));
+    }
+
+    @Test
+    void clustersModpackScaleEntriesWithinASecond() {
+        String[] materials = {"oak", "birch", "iron", "gold", "copper", "zinc", "brass", "andesite", "diorite", "granite"};
+        String[] shapes = {"slab", "stairs", "wall", "fence", "button", "plate", "ingot", "nugget", "block", "ore"};
+        List<EntryStack<?>> entries = new ArrayList<>(200_000);
+        for (int i = 0; i < 200_000; i++) {
+            entries.add(TestEntries.of(Identifier.of("mod_" + i % 500,
+                    materials[i % materials.length] + "_" + i / 500 + "_" + shapes[i / 10 % shapes.length])));
+        }
+        EntryIndex index = EntryIndex.of(entries);
+
+        // Once to load and warm up the classes, which a running game has done long before
+        PathTokenGrouper.propose(index, new LongOpenHashSet(), 8);
+
+        List<ModGroup> groups = assertTimeout(Duration.ofSeconds(1), () -> PathTokenGrouper.propose(index, new LongOpenHashSet(), 8));
+        assertEquals(entries.size(), groups.stream().mapToInt(group -> group.members().size()).sum());
+    }
+}
@@ -0,0 +1,78 @@
+package band.kessokuteatime.reicollapsibleentries.core;
+
+import me.shedaniel.rei.api.common.entry.EntryStack;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class PredicateOptimizerTest {
+    private static final List<EntryStack<?>> ENTRIES = new ArrayList<>();
+
+    @BeforeAll
+    static void entries() {
+        for (String namespace : List.of("minecraft", "create", "farmersdelight")) {
+            for (int i = 0; i < 100; i++) {
+                ENTRIES.add(TestEntries.of(namespace + ":" + (i % 2 == 0 ? "oak_" : "iron_") + "thing_" + i));
+            }
+        }
+    }
+
+    /**
+     * Stands in for a wrapped lambda that is costly to evaluate.
+     */
+    private static ModPredicate slow() {
+        return ModPredicate.of(entryStack -> {
+            long sum = 0;
+            for (int i = 0; i < 20_000; i++) sum += i ^ entryStack.getIdentifier().getPath().length();
+            return sum % 2 == 0;
+        });
+    }
+
+    @Test
+    void reorderingKeepsResults() {
+        List<ModPredicate> predicates = List.of(
+                slow().and(ModPredicate.mod("create")),
+                ModPredicate.pathLeading("oak").or(slow()).or(ModPredicate.mod("farmersdelight")),
+                ModPredicate.mod("minecraft").and(ModPredicate.pathContains("thing").negate().or(slow())),
+                ModPredicate.pathTrailing("_1").and(ModPredicate.mod("create", "minecraft")).negate()
+        );
+
+        PredicateOptimizer optimizer = PredicateOptimizer.sample(ENTRIES);
+        for (ModPredicate predicate : predicates) {
+            ModPredicate optimized = optimizer.optimize(predicate);
+            for (EntryStack<?> entryStack : ENTRIES) {
+                assertEquals(predicate.test(entryStack), optimized.test(entryStack), predicate + " on " + entryStack);
+            }
+        }
+    }
+
+    @Test
+    void cheapSelectiveOperandsComeFirst() {
+        ModPredicate cheap = ModPredicate.mod("create");
+        ModPredicate optimized = PredicateOptimizer.sample(ENTRIES).optimize(slow().and(cheap));
+
+        assertEquals(cheap, optimized.operands().get(0));
+    }
+
+    @Test
+    void givesUpOncePastDeadline() {
+        PredicateOptimizer optimizer = PredicateOptimizer.sample(ENTRIES);
+        ModPredicate predicate = slow().and(ModPredicate.mod("create"));
+
+        assertNull(optimizer.optimize(predicate, System.nanoTime() - 1));
+        assertNotNull(optimizer.optimize(predicate, Long.MAX_VALUE));
+    }
+
+    @Test
+    void noSampleLeavesPredicatesUntouched() {
+        ModPredicate predicate = slow().and(ModPredicate.mod("create"));
+
+        assertEquals(predicate, PredicateOptimizer.none().optimize(predicate));
+    }
+}
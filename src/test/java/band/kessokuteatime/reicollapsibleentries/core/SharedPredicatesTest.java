@@ -0,0 +1,71 @@
+package band.kessokuteatime.reicollapsibleentries.core;
+
+import me.shedaniel.rei.api.common.entry.EntryStack;
+import net.minecraft.text.Text;
+import net.minecraft.util.Identifier;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SharedPredicatesTest {
+    private static final List<EntryStack<?>> ENTRIES = List.of(
+            TestEntries.of("tconstruct:seared_glass"), TestEntries.of("tconstruct:seared_bucket"),
+            TestEntries.of("minecraft:glass"), TestEntries.of("minecraft:bucket")
+    );
+
+    private final AtomicInteger tested = new AtomicInteger();
+    private final ModPredicate counted = ModPredicate.of(entryStack -> {
+        tested.incrementAndGet();
+        return entryStack.getIdentifier().getNamespace().equals("tconstruct");
+    });
+
+    @Test
+    void sharesRepeatedSubPredicates() {
+        ModPredicate glass = counted.and(ModPredicate.pathTrailing("glass"));
+        ModPredicate buckets = counted.and(ModPredicate.pathTrailing("bucket"));
+        SharedPredicates shared = SharedPredicates.of(List.of(glass, buckets,
+                ModPredicate.pass().and(ModPredicate.mod("minecraft")), ModPredicate.pass().and(ModPredicate.mod("create"))));
+
+        assertEquals(glass, shared.share(glass));
+        assertEquals(buckets, shared.share(buckets));
+        // Only the predicate both groups start with, neither constants nor predicates used once
+        assertEquals(1, shared.size());
+    }
+
+    @Test
+    void evaluatesSharedSubPredicatesOncePerEntry() {
+        ModGroupRegistry registry = new ModGroupRegistry(new RecordingCollapsibleEntryRegistry(null), PredicateOptimizer.none());
+        ModGroup glass = new ModGroup(Identifier.of("test", "glass"), Text.literal("Glass"), counted.and(ModPredicate.pathTrailing("glass")));
+        ModGroup buckets = new ModGroup(Identifier.of("test", "buckets"), Text.literal("Buckets"), counted.and(ModPredicate.pathTrailing("bucket")));
+        registry.add(glass);
+        registry.add(buckets);
+
+        registry.resolve(EntryIndex.of(ENTRIES));
+
+        assertEquals(ENTRIES.size(), tested.get());
+        assertEquals(List.of(ENTRIES.get(0)), glass.members());
+        assertEquals(List.of(ENTRIES.get(1)), buckets.members());
+    }
+
+    @Test
+    void otherThreadsEvaluateDirectly() {
+        ModPredicate glass = counted.and(ModPredicate.pathTrailing("glass"));
+        SharedPredicates shared = SharedPredicates.of(List.of(glass, counted.and(ModPredicate.pathTrailing("bucket"))));
+        ModPredicate sharedGlass = shared.share(glass);
+        EntryIndex index = EntryIndex.of(ENTRIES);
+
+        assertTrue(sharedGlass.test(index, 0));
+        assertTrue(CompletableFuture.supplyAsync(() -> sharedGlass.test(index, 0)).join());
+        assertFalse(CompletableFuture.supplyAsync(() -> sharedGlass.test(index, 2)).join());
+        // The owner remembered its own result only
+        assertEquals(3, tested.get());
+        assertTrue(sharedGlass.test(index, 0));
+        assertEquals(3, tested.get());
+    }
+}
@@ -0,0 +1,68 @@
+package band.kessokuteatime.reicollapsibleentries.core;
+
+import net.minecraft.Bootstrap;
+import net.minecraft.SharedConstants;
+import net.minecraft.item.Item;
+import net.minecraft.item.Items;
+import net.minecraft.registry.tag.TagKey;
+import net.minecraft.text.Text;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TagGrouperTest {
+    private static final TagKey<Item> GLASS = TestTags.item("c:glass_blocks");
+    private static final TagKey<Item> DYED_GLASS = TestTags.item("c:glass_blocks/dyed");
+    private static final TagKey<Item> TRANSLUCENT = TestTags.item("c:translucent");
+    private static final TagKey<Item> SAND = TestTags.item("c:sands");
+
+    @BeforeAll
+    static void bootstrap() {
+        SharedConstants.createGameVersion();
+        Bootstrap.initialize();
+
+        TestTags.bind(Map.of(
+                GLASS, List.of(Items.GLASS, Items.WHITE_STAINED_GLASS, Items.RED_STAINED_GLASS, Items.BLUE_STAINED_GLASS, Items.TINTED_GLASS),
+                // Entirely within the glass blocks
+                DYED_GLASS, List.of(Items.WHITE_STAINED_GLASS, Items.RED_STAINED_GLASS, Items.BLUE_STAINED_GLASS),
+                // Shares half of its items with the glass blocks
+                TRANSLUCENT, List.of(Items.GLASS, Items.RED_STAINED_GLASS, Items.ICE, Items.SLIME_BLOCK),
+                SAND, List.of(Items.SAND)
+        ));
+    }
+
+    @AfterAll
+    static void unbind() {
+        TestTags.bind(Map.of());
+    }
+
+    private static ModGroupRegistry registry() {
+        return new ModGroupRegistry(new RecordingCollapsibleEntryRegistry(null), PredicateOptimizer.none());
+    }
+
+    @Test
+    void suppressesNearDuplicatesOfLargerTags() {
+        assertEquals(List.of(GLASS, TRANSLUCENT), TagGrouper.select(registry(), 2, 0.8));
+        assertEquals(List.of(GLASS), TagGrouper.select(registry(), 2, 0.5));
+    }
+
+    @Test
+    void skipsSmallTags() {
+        // A similarity above 1 suppresses nothing
+        assertEquals(List.of(GLASS, TRANSLUCENT, DYED_GLASS, SAND), TagGrouper.select(registry(), 1, 1.01));
+        assertEquals(List.of(GLASS), TagGrouper.select(registry(), 5, 0.8));
+    }
+
+    @Test
+    void registeredTagsSuppressButAreNotProposed() {
+        ModGroupRegistry registry = registry();
+        registry.group(GLASS.id(), Text.literal("Glass"), ModPredicate.tag(GLASS));
+
+        assertEquals(List.of(TRANSLUCENT), TagGrouper.select(registry, 2, 0.8));
+    }
+}
@@ -0,0 +1,70 @@
+package band.kessokuteatime.reicollapsibleentries.core;
+
+import net.minecraft.util.Identifier;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TagTrieTest {
+    private static final List<Identifier> TAGS = Stream.of(
+            "c:ingots", "c:ingots/iron", "c:ingots/gold", "c:ingots/copper", "c:ingot_like",
+            "c:storage_blocks/raw_iron", "c:storage_blocks/raw_gold", "c:storage_blocks/iron",
+            "minecraft:logs", "minecraft:logs_that_burn", "minecraft:ores/coal"
+    ).map(Identifier::of).toList();
+
+    private static List<Identifier> ids(String... identifiers) {
+        return Stream.of(identifiers).map(Identifier::of).toList();
+    }
+
+    @Test
+    void expandsPrefixesInOrder() {
+        TagTrie trie = TagTrie.of(TAGS);
+
+        assertEquals(ids("c:ingots/copper", "c:ingots/gold", "c:ingots/iron"), trie.expand("c:ingots/*"));
+        assertEquals(ids("c:storage_blocks/raw_gold", "c:storage_blocks/raw_iron"), trie.expand("c:storage_blocks/raw_*"));
+        assertEquals(ids("c:ingot_like", "c:ingots", "c:ingots/copper", "c:ingots/gold", "c:ingots/iron"), trie.expand("c:ingot*"));
+    }
+
+    @Test
+    void defaultsToMinecraftNamespace() {
+        TagTrie trie = TagTrie.of(TAGS);
+
+        assertEquals(ids("minecraft:logs", "minecraft:logs_that_burn"), trie.expand("logs*"));
+        assertEquals(ids("minecraft:ores/coal"), trie.expand("ores/*"));
+    }
+
+    @Test
+    void exactEntriesOnlyMatchThemselves() {
+        TagTrie trie = TagTrie.of(TAGS);
+
+        assertEquals(ids("c:ingots"), trie.expand("c:ingots"));
+        assertEquals(List.of(), trie.expand("c:ingots/tin"));
+        assertEquals(List.of(), trie.expand("c:gems/*"));
+        assertEquals(List.of(), trie.expand("Not A Tag"));
+    }
+
+    @Test
+    void reusesTrieForSameTags() {
+        TagTrie trie = TagTrie.of(TAGS);
+        List<Identifier> reversed = new ArrayList<>(TAGS);
+        Collections.reverse(reversed);
+
+        assertSame(trie, TagTrie.of(reversed));
+        assertEquals(ids("minecraft:logs"), TagTrie.of(ids("minecraft:logs")).expand("logs*"));
+    }
+
+    @Test
+    void recognizesPatterns() {
+        assertTrue(TagTrie.isPattern("c:ingots/*"));
+        assertFalse(TagTrie.isPattern("c:ingots"));
+        assertFalse(TagTrie.isPattern(""));
+    }
+}
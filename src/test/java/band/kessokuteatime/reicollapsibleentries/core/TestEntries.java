@@ -0,0 +1,100 @@
+package band.kessokuteatime.reicollapsibleentries.core;
+
+import me.shedaniel.rei.api.common.entry.EntryStack;
+import me.shedaniel.rei.api.common.entry.type.EntryDefinition;
+import me.shedaniel.rei.api.common.entry.type.EntryType;
+import me.shedaniel.rei.api.common.util.EntryStacks;
+import net.minecraft.item.ItemStack;
+import net.minecraft.registry.Registries;
+import net.minecraft.util.Identifier;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Builds entries without REI's internals, which are only set up in a running client. The entries
+ * answer what the groups look at: their type, identifier, value and exact hash.
+ */
+final class TestEntries {
+    static final Identifier ITEM = Identifier.of("minecraft", "item");
+    static final Identifier FLUID = Identifier.of("minecraft", "fluid");
+
+    private static final AtomicLong HASHES = new AtomicLong(1);
+
+    private TestEntries() {
+    }
+
+    /**
+     * @return An entry of the given type and identifier, with a hash no other entry has.
+     */
+    static EntryStack<?> of(Identifier type, Identifier identifier) {
+        return of(type, identifier, identifier, HASHES.getAndIncrement());
+    }
+
+    static EntryStack<?> of(Identifier identifier) {
+        return of(ITEM, identifier);
+    }
+
+    static EntryStack<?> of(String identifier) {
+        return of(Identifier.of(identifier));
+    }
+
+    /**
+     * @return An entry of an item stack, keyed by its item.
+     */
+    static EntryStack<?> item(ItemStack stack) {
+        return of(ITEM, Registries.ITEM.getId(stack.getItem()), stack, HASHES.getAndIncrement());
+    }
+
+    /**
+     * @return Another entry equal to the given one, sharing its exact hash.
+     */
+    static EntryStack<?> copy(EntryStack<?> entryStack) {
+        return of(entryStack.getType().getId(), entryStack.getIdentifier(), entryStack.getValue(), EntryStacks.hashExact(entryStack));
+    }
+
+    private static EntryStack<?> of(Identifier typeId, Identifier identifier, Object value, long hash) {
+        EntryType<?> type = (EntryType<?>) Proxy.newProxyInstance(
+                TestEntries.class.getClassLoader(),
+                new Class<?>[]{EntryType.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getId" -> typeId;
+                    case "equals" -> args[0] instanceof EntryType<?> other && typeId.equals(other.getId());
+                    case "hashCode" -> typeId.hashCode();
+                    case "toString" -> typeId.toString();
+                    default -> throw new UnsupportedOperationException(method.getName());
+                }
+        );
+
+        EntryDefinition<?> definition = (EntryDefinition<?>) Proxy.newProxyInstance(
+                TestEntries.class.getClassLoader(),
+                new Class<?>[]{EntryDefinition.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "hash" -> hash;
+                    case "getType" -> type;
+                    case "getIdentifier" -> identifier;
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "toString" -> "definition of " + typeId;
+                    default -> throw new UnsupportedOperationException(method.getName());
+                }
+        );
+
+        return (EntryStack<?>) Proxy.newProxyInstance(
+                TestEntries.class.getClassLoader(),
+                new Class<?>[]{EntryStack.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getIdentifier" -> identifier;
+                    case "getType" -> type;
+                    case "getDefinition" -> definition;
+                    case "getValue", "castValue" -> value;
+                    case "hash", "hashExact" -> hash;
+                    case "isEmpty" -> false;
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> Long.hashCode(hash);
+                    case "toString" -> identifier + "#" + hash;
+                    default -> throw new UnsupportedOperationException(method.getName());
+                }
+        );
+    }
+}
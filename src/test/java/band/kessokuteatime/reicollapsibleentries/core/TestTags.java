@@ -0,0 +1,43 @@
+package band.kessokuteatime.reicollapsibleentries.core;
+
+import net.minecraft.item.Item;
+import net.minecraft.registry.Registries;
+import net.minecraft.registry.RegistryKeys;
+import net.minecraft.registry.entry.RegistryEntry;
+import net.minecraft.registry.tag.TagKey;
+import net.minecraft.util.Identifier;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Binds item tags without loading a data pack. Registries must be bootstrapped first.
+ */
+final class TestTags {
+    private static final Set<TagKey<Item>> BOUND = new HashSet<>();
+
+    private TestTags() {
+    }
+
+    static TagKey<Item> item(String identifier) {
+        return TagKey.of(RegistryKeys.ITEM, Identifier.of(identifier));
+    }
+
+    /**
+     * Binds the given item tags. Tags bound before stay known to the registry, so they are left
+     * empty instead of keeping their items.
+     *
+     * @param tags The items of each tag.
+     */
+    static void bind(Map<TagKey<Item>, List<Item>> tags) {
+        Map<TagKey<Item>, List<RegistryEntry<Item>>> entries = new HashMap<>();
+        BOUND.forEach(tagKey -> entries.put(tagKey, List.of()));
+        tags.forEach((tagKey, items) -> entries.put(tagKey, items.stream().<RegistryEntry<Item>>map(Item::getRegistryEntry).toList()));
+
+        BOUND.addAll(tags.keySet());
+        Registries.ITEM.populateTags(entries);
+    }
+}
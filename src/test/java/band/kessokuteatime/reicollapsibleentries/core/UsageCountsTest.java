@@ -0,0 +1,105 @@
+package band.kessokuteatime.reicollapsibleentries.core;
+
+import net.minecraft.util.Identifier;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UsageCountsTest {
+    private static final Identifier POTIONS = Identifier.of("minecraft", "potions");
+    private static final Identifier ORES = Identifier.of("c", "ores");
+    private static final Identifier TOOLS = Identifier.of("minecraft", "tools");
+
+    @TempDir
+    Path directory;
+
+    /**
+     * @return Counts that are written synchronously, so that the file can be checked right away.
+     */
+    private UsageCounts read() {
+        return UsageCounts.read(directory.resolve("usage"), Runnable::run);
+    }
+
+    private static void record(UsageCounts usage, Identifier identifier, int times) {
+        for (int i = 0; i < times; i++) usage.record(identifier);
+    }
+
+    @Test
+    void halvesAllCountsAtLimit() {
+        UsageCounts usage = read();
+        record(usage, ORES, 3);
+        record(usage, TOOLS, 1);
+        record(usage, POTIONS, UsageCounts.LIMIT);
+
+        assertEquals(UsageCounts.LIMIT / 2, usage.count(POTIONS));
+        assertEquals(1, usage.count(ORES));
+        // Counts halved down to zero are forgotten
+        assertEquals(0, usage.count(TOOLS));
+        assertEquals(2, usage.size());
+    }
+
+    @Test
+    void trimsLeastExpandedButKeepsRecorded() {
+        UsageCounts usage = read();
+        for (int i = 0; i < UsageCounts.CAPACITY; i++) {
+            record(usage, Identifier.of("test", "group_" + i), i == 0 ? 1 : 2);
+        }
+        record(usage, POTIONS, 1);
+
+        assertEquals(UsageCounts.CAPACITY, usage.size());
+        assertEquals(1, usage.count(POTIONS));
+        assertEquals(0, usage.count(Identifier.of("test", "group_0")));
+        assertEquals(2, usage.count(Identifier.of("test", "group_1")));
+    }
+
+    @Test
+    void countsSubgroups() {
+        UsageCounts usage = read();
+        record(usage, POTIONS, 2);
+        record(usage, POTIONS.withSuffixedPath("/1"), 3);
+        record(usage, Identifier.of("minecraft", "potions_extra"), 5);
+
+        assertEquals(5, usage.count(POTIONS));
+    }
+
+    @Test
+    void writesAndReadsBack() throws IOException {
+        UsageCounts usage = read();
+        record(usage, ORES, 7);
+        record(usage, POTIONS, 42);
+
+        assertEquals(List.of("42 minecraft:potions", "7 c:ores"), Files.readAllLines(directory.resolve("usage")));
+
+        UsageCounts reread = read();
+        assertEquals(42, reread.count(POTIONS));
+        assertEquals(7, reread.count(ORES));
+    }
+
+    @Test
+    void readsLenientlyAndClamps() throws IOException {
+        Files.write(directory.resolve("usage"), List.of(
+                "99999 minecraft:potions",
+                "x c:ores",
+                "-3 minecraft:tools",
+                "garbage"
+        ));
+
+        UsageCounts usage = read();
+        assertEquals(UsageCounts.LIMIT, usage.count(POTIONS));
+        assertEquals(0, usage.count(ORES));
+        assertEquals(0, usage.count(TOOLS));
+        assertEquals(1, usage.size());
+    }
+
+    @Test
+    void startsEmptyWithoutFile() {
+        assertTrue(read().isEmpty());
+    }
+}